@@ -0,0 +1,134 @@
+/*
+ * This file is part of ViaRewind - https://github.com/ViaVersion/ViaRewind
+ * Copyright (C) 2018-2024 ViaVersion and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.viaversion.viarewind.benchmark;
+
+import com.viaversion.viarewind.protocol.protocol1_7_6_10to1_8.emulation.VirtualHologramEntity;
+import com.viaversion.viarewind.protocol.protocol1_7_6_10to1_8.storage.EntityTracker1_8;
+import com.viaversion.viaversion.api.minecraft.entities.EntityTypes1_10;
+import com.viaversion.viaversion.connection.UserConnectionImpl;
+import com.viaversion.viaversion.libs.fastutil.ints.Int2IntArrayMap;
+import com.viaversion.viaversion.libs.fastutil.ints.Int2IntMap;
+import com.viaversion.viaversion.libs.fastutil.ints.Int2IntOpenHashMap;
+import com.viaversion.viaversion.libs.fastutil.ints.Int2ObjectArrayMap;
+import com.viaversion.viaversion.libs.fastutil.ints.Int2ObjectMap;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the entity side tables of {@link EntityTracker1_8} with the array maps they replaced, for the hologram lookup
+ * done by every entity movement and metadata packet and for the vehicle lookup of a passenger. Every invocation looks up
+ * {@link #LOOKUPS} entity ids, three quarters of them tracked.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EntityTracker1_8Benchmark {
+	private static final int LOOKUPS = 256;
+
+	@Param({"10", "1000", "10000"})
+	public int armorStands;
+
+	private EntityTracker1_8 tracker;
+	private final Int2ObjectMap<VirtualHologramEntity> legacyHolograms = new Int2ObjectArrayMap<>();
+
+	// Armor stands ride each other in pairs, the tracker keeps the same two maps
+	private final Int2IntMap legacyVehicles = new Int2IntArrayMap();
+	private final Int2IntMap passengers = new Int2IntOpenHashMap();
+
+	private final int[] lookups = new int[LOOKUPS];
+
+	@Setup
+	public void setup() {
+		tracker = new EntityTracker1_8(new UserConnectionImpl(null, true));
+		legacyHolograms.clear();
+		legacyVehicles.clear();
+		passengers.clear();
+		passengers.defaultReturnValue(-1);
+
+		for (int i = 0; i < armorStands; i++) {
+			final int entityId = i * 2 + 1;
+			tracker.addEntity(entityId, EntityTypes1_10.EntityType.ARMOR_STAND);
+			legacyHolograms.put(entityId, tracker.getHolograms().get(entityId));
+			if ((i & 1) != 0) {
+				legacyVehicles.put(entityId - 2, entityId);
+				passengers.put(entityId, entityId - 2);
+			}
+		}
+
+		final Random random = new Random(1);
+		for (int i = 0; i < LOOKUPS; i++) {
+			final int index = random.nextInt(armorStands);
+			lookups[i] = random.nextInt(4) != 0 ? index * 2 + 1 : index * 2; // Tracked ids are odd
+		}
+	}
+
+	@Benchmark
+	public void legacyHologramLookup(final Blackhole blackhole) {
+		for (int entityId : lookups) {
+			blackhole.consume(legacyHolograms.get(entityId));
+		}
+	}
+
+	@Benchmark
+	public void hologramLookup(final Blackhole blackhole) {
+		final Int2ObjectMap<VirtualHologramEntity> holograms = tracker.getHolograms();
+		for (int entityId : lookups) {
+			blackhole.consume(holograms.get(entityId));
+		}
+	}
+
+	@Benchmark
+	public void legacyVehicleLookup(final Blackhole blackhole) {
+		for (int entityId : lookups) {
+			blackhole.consume(legacyGetVehicle(entityId));
+		}
+	}
+
+	@Benchmark
+	public void vehicleLookup(final Blackhole blackhole) {
+		for (int entityId : lookups) {
+			blackhole.consume(passengers.get(entityId));
+		}
+	}
+
+	private int legacyGetVehicle(final int passengerId) {
+		for (Map.Entry<Integer, Integer> vehicle : legacyVehicles.entrySet()) {
+			if (vehicle.getValue() == passengerId) {
+				return vehicle.getKey();
+			}
+		}
+		return -1;
+	}
+}
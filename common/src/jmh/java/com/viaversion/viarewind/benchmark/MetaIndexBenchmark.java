@@ -0,0 +1,98 @@
+/*
+ * This file is part of ViaRewind - https://github.com/ViaVersion/ViaRewind
+ * Copyright (C) 2018-2024 ViaVersion and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.viaversion.viarewind.benchmark;
+
+import com.viaversion.viarewind.protocol.LegacyMetaIndexLookup;
+import com.viaversion.viarewind.protocol.protocol1_7_6_10to1_8.metadata.MetaIndex;
+import com.viaversion.viarewind.protocol.protocol1_8to1_9.metadata.MetaIndex1_8to1_9;
+import com.viaversion.viaversion.api.minecraft.entities.EntityTypes1_10;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the metadata index lookup over a map and the parent types with the flattened tables, for a living entity
+ * and an item frame which are a few levels down the hierarchy, looking up every index a metadata list could contain.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MetaIndexBenchmark {
+	private static final EntityTypes1_10.EntityType[] TYPES = {EntityTypes1_10.EntityType.ZOMBIE, EntityTypes1_10.EntityType.ITEM_FRAME};
+	private static final int INDEXES = 32;
+
+	private LegacyMetaIndexLookup<MetaIndex> legacy1_7;
+	private LegacyMetaIndexLookup<com.viaversion.viaversion.protocols.protocol1_9to1_8.metadata.MetaIndex> legacy1_8;
+
+	@Setup
+	public void setup() {
+		legacy1_7 = new LegacyMetaIndexLookup<>(MetaIndex.values(), MetaIndex::getClazz, MetaIndex::getNewIndex);
+		legacy1_8 = new LegacyMetaIndexLookup<>(com.viaversion.viaversion.protocols.protocol1_9to1_8.metadata.MetaIndex.values(),
+				com.viaversion.viaversion.protocols.protocol1_9to1_8.metadata.MetaIndex::getClazz,
+				com.viaversion.viaversion.protocols.protocol1_9to1_8.metadata.MetaIndex::getNewIndex);
+	}
+
+	@Benchmark
+	public void legacy1_7(final Blackhole blackhole) {
+		for (EntityTypes1_10.EntityType type : TYPES) {
+			for (int index = 0; index < INDEXES; index++) {
+				blackhole.consume(legacy1_7.searchIndex(type, index));
+			}
+		}
+	}
+
+	@Benchmark
+	public void table1_7(final Blackhole blackhole) {
+		for (EntityTypes1_10.EntityType type : TYPES) {
+			for (int index = 0; index < INDEXES; index++) {
+				blackhole.consume(MetaIndex.searchIndex(type, index));
+			}
+		}
+	}
+
+	@Benchmark
+	public void legacy1_8(final Blackhole blackhole) {
+		for (EntityTypes1_10.EntityType type : TYPES) {
+			for (int index = 0; index < INDEXES; index++) {
+				blackhole.consume(legacy1_8.searchIndex(type, index));
+			}
+		}
+	}
+
+	@Benchmark
+	public void table1_8(final Blackhole blackhole) {
+		for (EntityTypes1_10.EntityType type : TYPES) {
+			for (int index = 0; index < INDEXES; index++) {
+				blackhole.consume(MetaIndex1_8to1_9.searchIndex(type, index));
+			}
+		}
+	}
+}
@@ -38,6 +38,15 @@ public class ViaRewindConfig extends Config implements com.viaversion.viarewind.
 	private String worldBorderParticle;
 	private boolean enableOffhand;
 	private String offhandCommand;
+	private int chunkCompressionLevel;
+	private CompressionStrategy chunkCompressionStrategy;
+	private boolean adaptiveChunkCompression;
+	private int itemNbtCompressionLevel;
+	private int chunkCacheSize;
+	private int chunkWorkerThreads;
+	private boolean parallelChunkEncoding;
+	private boolean tickOnEventLoop;
+	private int metricsInterval;
 
     public ViaRewindConfig(File configFile) {
         super(configFile);
@@ -60,6 +69,15 @@ public class ViaRewindConfig extends Config implements com.viaversion.viarewind.
 		worldBorderParticle = getString("world-border-particle", "fireworksSpark");
 		enableOffhand = getBoolean("enable-offhand", true);
 		offhandCommand = getString("offhand-command", "/offhand");
+		chunkCompressionLevel = Math.max(-1, Math.min(9, getInt("chunk-compression-level", -1)));
+		chunkCompressionStrategy = CompressionStrategy.valueOf(getString("chunk-compression-strategy", "DEFAULT").toUpperCase());
+		adaptiveChunkCompression = getBoolean("adaptive-chunk-compression", false);
+		itemNbtCompressionLevel = Math.max(-1, Math.min(9, getInt("item-nbt-compression-level", -1)));
+		chunkCacheSize = Math.max(0, getInt("chunk-cache-size", 0));
+		chunkWorkerThreads = Math.max(0, getInt("chunk-worker-threads", 0));
+		parallelChunkEncoding = getBoolean("parallel-chunk-encoding", false);
+		tickOnEventLoop = getBoolean("tick-on-event-loop", false);
+		metricsInterval = Math.max(0, getInt("metrics-interval", 0));
 	}
 
 	@Override
@@ -112,6 +130,51 @@ public class ViaRewindConfig extends Config implements com.viaversion.viarewind.
 		return offhandCommand;
 	}
 
+	@Override
+	public int getChunkCompressionLevel() {
+		return chunkCompressionLevel;
+	}
+
+	@Override
+	public CompressionStrategy getChunkCompressionStrategy() {
+		return chunkCompressionStrategy;
+	}
+
+	@Override
+	public boolean isAdaptiveChunkCompression() {
+		return adaptiveChunkCompression;
+	}
+
+	@Override
+	public int getItemNbtCompressionLevel() {
+		return itemNbtCompressionLevel;
+	}
+
+	@Override
+	public int getChunkCacheSize() {
+		return chunkCacheSize;
+	}
+
+	@Override
+	public int getChunkWorkerThreads() {
+		return chunkWorkerThreads;
+	}
+
+	@Override
+	public boolean isParallelChunkEncoding() {
+		return parallelChunkEncoding;
+	}
+
+	@Override
+	public boolean isTickOnEventLoop() {
+		return tickOnEventLoop;
+	}
+
+	@Override
+	public int getMetricsInterval() {
+		return metricsInterval;
+	}
+
 	@Override
     public URL getDefaultConfigURL() {
         return getClass().getClassLoader().getResource("assets/viarewind/config.yml");
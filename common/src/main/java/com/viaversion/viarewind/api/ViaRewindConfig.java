@@ -19,6 +19,8 @@ package com.viaversion.viarewind.api;
 
 import com.viaversion.viaversion.api.configuration.Config;
 
+import java.util.zip.Deflater;
+
 /**
  * This class is used to get the platform specific config
  */
@@ -28,6 +30,23 @@ public interface ViaRewindConfig extends Config {
 		TITLE, ACTION_BAR, BOSS_BAR, DISABLED
 	}
 
+	enum CompressionStrategy {
+		DEFAULT(Deflater.DEFAULT_STRATEGY), FILTERED(Deflater.FILTERED), HUFFMAN_ONLY(Deflater.HUFFMAN_ONLY);
+
+		private final int strategy;
+
+		CompressionStrategy(final int strategy) {
+			this.strategy = strategy;
+		}
+
+		/**
+		 * @return the strategy constant used by {@link Deflater#setStrategy(int)}
+		 */
+		public int getStrategy() {
+			return strategy;
+		}
+	}
+
 	/**
 	 * Specifies how 1.8.x clients should see the cooldown indicator
 	 * You can choose between TITLE, ACTION_BAR, BOSS_BAR and DISABLED
@@ -103,4 +122,69 @@ public interface ViaRewindConfig extends Config {
 	 * @return the offhand command
 	 */
 	String getOffhandCommand();
+
+	/**
+	 * The zlib compression level (0-9) used for chunk data sent to 1.7.x clients
+	 * Lower levels use less CPU but send more bytes, -1 uses the zlib default
+	 *
+	 * @return the compression level
+	 */
+	int getChunkCompressionLevel();
+
+	/**
+	 * The zlib compression strategy used for chunk data sent to 1.7.x clients
+	 *
+	 * @return the compression strategy
+	 */
+	CompressionStrategy getChunkCompressionStrategy();
+
+	/**
+	 * Lowers the chunk compression level while a thread spends a large share of its time compressing chunks
+	 *
+	 * @return true if enabled
+	 */
+	boolean isAdaptiveChunkCompression();
+
+	/**
+	 * The gzip compression level (0-9) used for the NBT data of items sent to 1.7.x clients
+	 * Lower levels use less CPU but send more bytes, -1 uses the zlib default
+	 *
+	 * @return the compression level
+	 */
+	int getItemNbtCompressionLevel();
+
+	/**
+	 * Size in megabytes of the cache for compressed chunk data shared between all 1.7.x clients, 0 disables the cache
+	 *
+	 * @return the cache size in megabytes
+	 */
+	int getChunkCacheSize();
+
+	/**
+	 * Amount of worker threads which encode chunks for 1.7.x clients off the network threads, 0 encodes them on the network threads
+	 *
+	 * @return the amount of worker threads
+	 */
+	int getChunkWorkerThreads();
+
+	/**
+	 * Whether large bulk chunk packets are serialized and compressed in parallel on the chunk worker threads
+	 *
+	 * @return true if enabled
+	 */
+	boolean isParallelChunkEncoding();
+
+	/**
+	 * Whether the emulation tasks of every connection, like the world border or cooldown indicator, run on the network thread of the connection
+	 *
+	 * @return true if enabled
+	 */
+	boolean isTickOnEventLoop();
+
+	/**
+	 * Interval in seconds in which performance metrics are logged, 0 disables them
+	 *
+	 * @return the interval in seconds
+	 */
+	int getMetricsInterval();
 }
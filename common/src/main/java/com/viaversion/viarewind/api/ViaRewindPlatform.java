@@ -22,11 +22,14 @@ import com.viaversion.viarewind.ViaRewindConfig;
 import com.viaversion.viarewind.protocol.protocol1_7_2_5to1_7_6_10.Protocol1_7_2_5To1_7_6_10;
 import com.viaversion.viarewind.protocol.protocol1_7_6_10to1_8.Protocol1_7_6_10To1_8;
 import com.viaversion.viarewind.protocol.protocol1_8to1_9.Protocol1_8To1_9;
+import com.viaversion.viarewind.task.MetricsReportTask;
+import com.viaversion.viarewind.task.TickScheduler;
 import com.viaversion.viaversion.api.Via;
 import com.viaversion.viaversion.api.protocol.ProtocolManager;
 import com.viaversion.viaversion.api.protocol.version.ProtocolVersion;
 
 import java.io.File;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Logger;
 
 /**
@@ -55,6 +58,11 @@ public interface ViaRewindPlatform {
 		protocolManager.registerProtocol(new Protocol1_7_6_10To1_8(), ProtocolVersion.v1_7_6, ProtocolVersion.v1_8);
 
 		protocolManager.registerProtocol(new Protocol1_8To1_9(), ProtocolVersion.v1_8, ProtocolVersion.v1_9);
+
+		Via.getManager().getScheduler().scheduleRepeating(new TickScheduler(), 0L, TickScheduler.TICK_INTERVAL, TimeUnit.MILLISECONDS);
+		if (config.getMetricsInterval() > 0) {
+			Via.getManager().getScheduler().scheduleRepeating(new MetricsReportTask(), config.getMetricsInterval(), config.getMetricsInterval(), TimeUnit.SECONDS);
+		}
 	}
 
 	/**
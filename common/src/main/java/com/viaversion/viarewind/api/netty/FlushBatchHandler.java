@@ -0,0 +1,129 @@
+/*
+ * This file is part of ViaRewind - https://github.com/ViaVersion/ViaRewind
+ * Copyright (C) 2018-2024 ViaVersion and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.viaversion.viarewind.api.netty;
+
+import com.viaversion.viarewind.ViaRewind;
+import com.viaversion.viaversion.api.Via;
+import com.viaversion.viaversion.api.connection.UserConnection;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelOutboundHandlerAdapter;
+import io.netty.channel.ChannelPipeline;
+
+import java.util.logging.Level;
+
+/**
+ * Sits directly behind the ViaVersion encoder and collects the flushes of packets which are sent by the emulation code.
+ * While a batch is running, packets are only written, and a single flush is issued after the packet which triggered
+ * the batch has been written as well.
+ */
+public class FlushBatchHandler extends ChannelOutboundHandlerAdapter {
+
+	public static final String NAME = "viarewind-flush-batch";
+
+	private ChannelHandlerContext ctx;
+	private int depth;
+	private boolean flushPending;
+
+	/**
+	 * Runs the given action and batches the flushes of all packets it sends. Falls back to just running the action if
+	 * the connection has no channel or this isn't called from its event loop.
+	 *
+	 * @param user   the connection
+	 * @param action the action sending the packets
+	 * @throws Exception if the action fails
+	 */
+	public static void batch(final UserConnection user, final BatchAction action) throws Exception {
+		final Channel channel = user.getChannel();
+		if (user.isClientSide() || channel == null || !channel.eventLoop().inEventLoop()) {
+			action.run();
+			return;
+		}
+
+		final FlushBatchHandler handler = getOrAdd(channel.pipeline());
+		handler.depth++;
+		try {
+			action.run();
+		} finally {
+			if (--handler.depth == 0 && handler.flushPending) {
+				// Queued, so the packet currently being handled is written before the flush
+				channel.eventLoop().execute(handler::flushPending);
+			}
+		}
+	}
+
+	/**
+	 * Runs the given action on the event loop of the connection after the packet which is currently being handled and
+	 * batches the flushes of all packets it sends, this replaces scheduling every packet on its own.
+	 *
+	 * @param user   the connection
+	 * @param action the action sending the packets
+	 */
+	public static void schedule(final UserConnection user, final BatchAction action) {
+		final Channel channel = user.getChannel();
+		final Runnable task = () -> {
+			try {
+				batch(user, action);
+			} catch (Exception e) {
+				ViaRewind.getPlatform().getLogger().log(Level.SEVERE, "Failed to send emulated packets", e);
+			}
+		};
+		if (channel == null) {
+			task.run();
+		} else {
+			channel.eventLoop().execute(task);
+		}
+	}
+
+	private static FlushBatchHandler getOrAdd(final ChannelPipeline pipeline) {
+		FlushBatchHandler handler = (FlushBatchHandler) pipeline.get(NAME);
+		if (handler == null) {
+			handler = new FlushBatchHandler();
+			pipeline.addBefore(Via.getManager().getInjector().getEncoderName(), NAME, handler);
+		}
+		return handler;
+	}
+
+	@Override
+	public void handlerAdded(ChannelHandlerContext ctx) {
+		this.ctx = ctx;
+	}
+
+	@Override
+	public void flush(ChannelHandlerContext ctx) {
+		if (depth > 0) {
+			flushPending = true;
+		} else {
+			flushPending = false;
+			ctx.flush();
+		}
+	}
+
+	private void flushPending() {
+		if (flushPending && depth == 0) {
+			flushPending = false;
+			ctx.flush();
+		}
+	}
+
+	@FunctionalInterface
+	public interface BatchAction {
+
+		void run() throws Exception;
+	}
+}
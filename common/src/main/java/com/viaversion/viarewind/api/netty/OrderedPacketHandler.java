@@ -0,0 +1,163 @@
+/*
+ * This file is part of ViaRewind - https://github.com/ViaVersion/ViaRewind
+ * Copyright (C) 2018-2024 ViaVersion and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.viaversion.viarewind.api.netty;
+
+import com.viaversion.viarewind.ViaRewind;
+import com.viaversion.viaversion.api.Via;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelOutboundHandlerAdapter;
+import io.netty.channel.ChannelPipeline;
+import io.netty.channel.ChannelPromise;
+import io.netty.util.ReferenceCountUtil;
+
+import java.nio.channels.ClosedChannelException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.logging.Level;
+
+/**
+ * Sits directly behind the ViaVersion encoder and allows packets to be encoded off the event loop. While an
+ * asynchronously encoded packet is pending, every following write is held back, so nothing can overtake it.
+ */
+public class OrderedPacketHandler extends ChannelOutboundHandlerAdapter {
+
+	public static final String NAME = "viarewind-ordered-packets";
+
+	private final Deque<Object> queue = new ArrayDeque<>();
+	private ChannelHandlerContext ctx;
+	private boolean flushPending;
+	private boolean removed;
+
+	/**
+	 * Gets the handler of the given pipeline or adds it if there is none yet, needs to be called from the event loop.
+	 *
+	 * @param pipeline the pipeline
+	 * @return the handler
+	 */
+	public static OrderedPacketHandler getOrAdd(final ChannelPipeline pipeline) {
+		OrderedPacketHandler handler = (OrderedPacketHandler) pipeline.get(NAME);
+		if (handler == null) {
+			handler = new OrderedPacketHandler();
+			pipeline.addBefore(Via.getManager().getInjector().getEncoderName(), NAME, handler);
+		}
+		return handler;
+	}
+
+	/**
+	 * Reserves the current position in the outbound stream for a packet which is still being encoded, needs to be
+	 * called from the event loop.
+	 *
+	 * @param packet the future of the fully encoded packet
+	 */
+	public void enqueue(final CompletableFuture<ByteBuf> packet) {
+		queue.add(packet);
+		packet.whenComplete((buf, throwable) -> ctx.executor().execute(this::drain));
+	}
+
+	@Override
+	public void handlerAdded(ChannelHandlerContext ctx) {
+		this.ctx = ctx;
+	}
+
+	@Override
+	public void handlerRemoved(ChannelHandlerContext ctx) {
+		removed = true;
+
+		Object next;
+		while ((next = queue.poll()) != null) {
+			if (next instanceof PendingWrite) {
+				((PendingWrite) next).release();
+			} else {
+				((CompletableFuture<?>) next).thenAccept(ReferenceCountUtil::release);
+			}
+		}
+	}
+
+	@Override
+	public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) {
+		if (queue.isEmpty()) {
+			ctx.write(msg, promise);
+		} else {
+			queue.add(new PendingWrite(msg, promise));
+		}
+	}
+
+	@Override
+	public void flush(ChannelHandlerContext ctx) {
+		if (queue.isEmpty()) {
+			ctx.flush();
+		} else {
+			flushPending = true;
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private void drain() {
+		if (removed) {
+			return;
+		}
+
+		boolean written = false;
+		Object next;
+		while ((next = queue.peek()) != null) {
+			if (next instanceof PendingWrite) {
+				queue.poll();
+				final PendingWrite pendingWrite = (PendingWrite) next;
+				ctx.write(pendingWrite.msg, pendingWrite.promise);
+				written = true;
+				continue;
+			}
+
+			final CompletableFuture<ByteBuf> packet = (CompletableFuture<ByteBuf>) next;
+			if (!packet.isDone()) {
+				break;
+			}
+			queue.poll();
+			try {
+				ctx.write(packet.join());
+				written = true;
+			} catch (CompletionException e) {
+				ViaRewind.getPlatform().getLogger().log(Level.SEVERE, "Failed to encode packet off the event loop", e.getCause());
+			}
+		}
+
+		if (written && flushPending) {
+			ctx.flush();
+			flushPending = !queue.isEmpty();
+		}
+	}
+
+	private static class PendingWrite {
+
+		private final Object msg;
+		private final ChannelPromise promise;
+
+		public PendingWrite(final Object msg, final ChannelPromise promise) {
+			this.msg = msg;
+			this.promise = promise;
+		}
+
+		public void release() {
+			ReferenceCountUtil.release(msg);
+			promise.tryFailure(new ClosedChannelException());
+		}
+	}
+}
@@ -20,16 +20,14 @@ package com.viaversion.viarewind.api.type.chunk;
 import com.viaversion.viaversion.api.minecraft.chunks.Chunk;
 import com.viaversion.viaversion.api.minecraft.chunks.ChunkSection;
 import com.viaversion.viaversion.api.type.Type;
-import com.viaversion.viaversion.util.Pair;
 import io.netty.buffer.ByteBuf;
 
-import java.io.ByteArrayOutputStream;
-import java.util.zip.Deflater;
-
 public class BulkChunkType1_7_6 extends Type<Chunk[]> {
 
 	public static final BulkChunkType1_7_6 TYPE = new BulkChunkType1_7_6();
 
+	private static final int PARALLEL_THRESHOLD = 4;
+
 	public BulkChunkType1_7_6() {
 		super(Chunk[].class);
 	}
@@ -42,38 +40,36 @@ public class BulkChunkType1_7_6 extends Type<Chunk[]> {
 	@Override
 	public void write(ByteBuf byteBuf, Chunk[] chunks) throws Exception {
 		final int chunkCount = chunks.length;
-		final ByteArrayOutputStream output = new ByteArrayOutputStream();
 		final int[] chunkX = new int[chunkCount];
 		final int[] chunkZ = new int[chunkCount];
 		final short[] primaryBitMask = new short[chunkCount];
 		final short[] additionalBitMask = new short[chunkCount];
 
+		int length = 0;
 		for (int i = 0; i < chunkCount; i++) {
 			final Chunk chunk = chunks[i];
-			final Pair<byte[], Short> chunkData = ChunkType1_7_6.serialize(chunk);
-			output.write(chunkData.key());
 			chunkX[i] = chunk.getX();
 			chunkZ[i] = chunk.getZ();
 			primaryBitMask[i] = (short) chunk.getBitmask();
-			additionalBitMask[i] = chunkData.value();
+			additionalBitMask[i] = ChunkType1_7_6.getAdditionalBitMask(chunk);
+			length += ChunkType1_7_6.getSerializedLength(chunk, additionalBitMask[i]);
 		}
-		final byte[] data = output.toByteArray();
 
-		final Deflater deflater = new Deflater();
-		byte[] compressedData;
-		int compressedSize;
-		try {
-			deflater.setInput(data, 0, data.length);
-			deflater.finish();
-			compressedData = new byte[data.length];
-			compressedSize = deflater.deflate(compressedData);
-		} finally {
-			deflater.end();
+		final byte[] data = new byte[length];
+		if (chunkCount >= PARALLEL_THRESHOLD && ChunkWorkerPool.isParallel()) {
+			// Every chunk has a fixed slice of the data array, so they can be serialized independently
+			final int[] offsets = new int[chunkCount];
+			for (int i = 1; i < chunkCount; i++) {
+				offsets[i] = offsets[i - 1] + ChunkType1_7_6.getSerializedLength(chunks[i - 1], additionalBitMask[i - 1]);
+			}
+			ChunkWorkerPool.invokeAll(chunkCount, i -> ChunkType1_7_6.serialize(chunks[i], additionalBitMask[i], data, offsets[i]));
+		} else {
+			int offset = 0;
+			for (int i = 0; i < chunkCount; i++) {
+				offset = ChunkType1_7_6.serialize(chunks[i], additionalBitMask[i], data, offset);
+			}
 		}
 
-		byteBuf.writeShort(chunkCount);
-		byteBuf.writeInt(compressedSize);
-
 		boolean skyLight = false;
 		for (Chunk chunk : chunks) {
 			for (ChunkSection section : chunk.getSections()) {
@@ -84,8 +80,13 @@ public class BulkChunkType1_7_6 extends Type<Chunk[]> {
 			}
 		}
 
+		byteBuf.writeShort(chunkCount);
+		final int compressedSizeIndex = byteBuf.writerIndex();
+		byteBuf.writeInt(0); // compressed size, set after compressing
 		byteBuf.writeBoolean(skyLight); // hasSkyLight
-		byteBuf.writeBytes(compressedData, 0, compressedSize);
+
+		final int compressedSize = ChunkCompression.compress(data, byteBuf, chunkCount);
+		byteBuf.setInt(compressedSizeIndex, compressedSize);
 
 		for (int i = 0; i < chunkCount; i++) {
 			byteBuf.writeInt(chunkX[i]);
@@ -0,0 +1,189 @@
+/*
+ * This file is part of ViaRewind - https://github.com/ViaVersion/ViaRewind
+ * Copyright (C) 2018-2024 ViaVersion and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.viaversion.viarewind.api.type.chunk;
+
+import com.google.common.hash.HashCode;
+import com.viaversion.viarewind.ViaRewind;
+import com.viaversion.viarewind.api.ViaRewindConfig;
+import com.viaversion.viarewind.utils.DeflaterPool;
+import io.netty.buffer.ByteBuf;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.Adler32;
+import java.util.zip.Deflater;
+
+/**
+ * Compresses chunk data for 1.7 clients using the level and strategy from the config and keeps track of the chunk
+ * compression metrics.
+ */
+public class ChunkCompression {
+
+	private static final long ADAPTIVE_WINDOW = TimeUnit.SECONDS.toNanos(1);
+	private static final long ADAPTIVE_THRESHOLD = ADAPTIVE_WINDOW / 4;
+
+	private static final int PARALLEL_PIECE_SIZE = 128 * 1024;
+
+	private static final ThreadLocal<AdaptiveWindow> ADAPTIVE_WINDOWS = ThreadLocal.withInitial(AdaptiveWindow::new);
+
+	private static final LongAdder CHUNKS = new LongAdder();
+	private static final LongAdder UNCOMPRESSED_BYTES = new LongAdder();
+	private static final LongAdder COMPRESSED_BYTES = new LongAdder();
+	private static final LongAdder NANOS = new LongAdder();
+
+	/**
+	 * Compresses the given chunk data and writes it into the output buffer, or writes the cached compressed data if the
+	 * same chunk data has already been compressed before.
+	 *
+	 * @param data       the uncompressed chunk data
+	 * @param output     the buffer to write the compressed data into
+	 * @param chunkCount the amount of chunks contained in the data
+	 * @return the amount of compressed bytes written
+	 */
+	public static int compress(final byte[] data, final ByteBuf output, final int chunkCount) {
+		if (!ChunkPayloadCache.isEnabled()) {
+			return deflate(data, output, chunkCount);
+		}
+
+		final HashCode key = ChunkPayloadCache.hash(data);
+		final byte[] cached = ChunkPayloadCache.get(key);
+		if (cached != null) {
+			output.writeBytes(cached);
+			return cached.length;
+		}
+
+		final int startIndex = output.writerIndex();
+		final int compressedSize = deflate(data, output, chunkCount);
+
+		final byte[] payload = new byte[compressedSize];
+		output.getBytes(startIndex, payload);
+		ChunkPayloadCache.put(key, payload);
+		return compressedSize;
+	}
+
+	private static int deflate(final byte[] data, final ByteBuf output, final int chunkCount) {
+		final ViaRewindConfig config = ViaRewind.getConfig();
+		final boolean adaptive = config.isAdaptiveChunkCompression();
+		if (!adaptive && config.getMetricsInterval() <= 0) {
+			return deflate(data, output, config.getChunkCompressionLevel(), config.getChunkCompressionStrategy().getStrategy());
+		}
+
+		int level = config.getChunkCompressionLevel();
+		final AdaptiveWindow window = adaptive ? ADAPTIVE_WINDOWS.get() : null;
+		if (window != null && window.saturated && (level == Deflater.DEFAULT_COMPRESSION || level > Deflater.BEST_SPEED)) {
+			level = Deflater.BEST_SPEED;
+		}
+
+		final long start = System.nanoTime();
+		final int compressedSize = deflate(data, output, level, config.getChunkCompressionStrategy().getStrategy());
+		final long end = System.nanoTime();
+
+		if (window != null) {
+			window.record(end, end - start);
+		}
+		CHUNKS.add(chunkCount);
+		UNCOMPRESSED_BYTES.add(data.length);
+		COMPRESSED_BYTES.add(compressedSize);
+		NANOS.add(end - start);
+		return compressedSize;
+	}
+
+	private static int deflate(final byte[] data, final ByteBuf output, final int level, final int strategy) {
+		if (data.length < PARALLEL_PIECE_SIZE * 2 || !ChunkWorkerPool.isParallel()) {
+			return DeflaterPool.deflate(data, 0, data.length, output, level, strategy);
+		}
+
+		// Every piece is compressed on its own and ends on a sync flush block, so the pieces can simply be concatenated
+		final int pieceCount = (data.length + PARALLEL_PIECE_SIZE - 1) / PARALLEL_PIECE_SIZE;
+		final ByteBuf[] pieces = new ByteBuf[pieceCount];
+		try {
+			ChunkWorkerPool.invokeAll(pieceCount, i -> {
+				final int offset = i * PARALLEL_PIECE_SIZE;
+				final int length = Math.min(PARALLEL_PIECE_SIZE, data.length - offset);
+
+				final ByteBuf piece = output.alloc().heapBuffer(length / 2);
+				pieces[i] = piece;
+				DeflaterPool.deflateRaw(data, offset, length, piece, level, strategy, i == pieceCount - 1);
+			});
+
+			final int startIndex = output.writerIndex();
+			output.writeByte(0x78); // deflate with 32K window
+			output.writeByte(zlibHeaderFlags(level, strategy));
+			for (ByteBuf piece : pieces) {
+				output.writeBytes(piece);
+			}
+
+			final Adler32 checksum = new Adler32();
+			checksum.update(data, 0, data.length);
+			output.writeInt((int) checksum.getValue());
+			return output.writerIndex() - startIndex;
+		} finally {
+			for (ByteBuf piece : pieces) {
+				if (piece != null) {
+					piece.release();
+				}
+			}
+		}
+	}
+
+	private static int zlibHeaderFlags(final int level, final int strategy) {
+		// Same compression level hint as zlib itself writes, the check bits make the header divisible by 31
+		if (strategy == Deflater.HUFFMAN_ONLY || level == Deflater.NO_COMPRESSION || level == Deflater.BEST_SPEED) {
+			return 0x01;
+		} else if (level == Deflater.DEFAULT_COMPRESSION || level == 6) {
+			return 0x9C;
+		} else if (level < 6) {
+			return 0x5E;
+		}
+		return 0xDA;
+	}
+
+	/**
+	 * Builds a summary of the chunk compression since the last call and resets the counters.
+	 *
+	 * @return the summary, or null if no chunks have been compressed
+	 */
+	public static String reportMetrics() {
+		final long chunks = CHUNKS.sumThenReset();
+		final long uncompressedBytes = UNCOMPRESSED_BYTES.sumThenReset();
+		final long compressedBytes = COMPRESSED_BYTES.sumThenReset();
+		final long nanos = NANOS.sumThenReset();
+		if (chunks == 0) {
+			return null;
+		}
+		return String.format("Chunk compression: %d chunks, %d bytes per chunk (%d uncompressed), %d ns per chunk",
+			chunks, compressedBytes / chunks, uncompressedBytes / chunks, nanos / chunks);
+	}
+
+	private static class AdaptiveWindow {
+
+		private long start = System.nanoTime();
+		private long busyNanos;
+		private boolean saturated;
+
+		public void record(final long now, final long nanos) {
+			if (now - start >= ADAPTIVE_WINDOW) {
+				// Only go back to the configured level once the thread is clearly below the threshold again
+				saturated = saturated ? busyNanos >= ADAPTIVE_THRESHOLD / 2 : busyNanos >= ADAPTIVE_THRESHOLD;
+				start = now;
+				busyNanos = 0;
+			}
+			busyNanos += nanos;
+		}
+	}
+}
@@ -0,0 +1,88 @@
+/*
+ * This file is part of ViaRewind - https://github.com/ViaVersion/ViaRewind
+ * Copyright (C) 2018-2024 ViaVersion and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.viaversion.viarewind.api.type.chunk;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+import com.viaversion.viarewind.ViaRewind;
+
+/**
+ * Cache of compressed 1.7 chunk data shared between all connections, keyed by a hash of the uncompressed data. Since the
+ * uncompressed data already contains the remapped blocks and the light of every sent section, identical chunks sent to
+ * different 1.7 clients only have to be compressed once.
+ */
+public class ChunkPayloadCache {
+
+	private static final HashFunction HASH_FUNCTION = Hashing.murmur3_128();
+	private static final int ENTRY_OVERHEAD = 64;
+
+	private static final Cache<HashCode, byte[]> CACHE = createCache();
+	private static CacheStats lastStats = new CacheStats(0, 0, 0, 0, 0, 0);
+
+	private static Cache<HashCode, byte[]> createCache() {
+		final int size = ViaRewind.getConfig().getChunkCacheSize();
+		if (size <= 0) {
+			return null;
+		}
+		return CacheBuilder.newBuilder()
+			.concurrencyLevel(Runtime.getRuntime().availableProcessors())
+			.maximumWeight(size * 1024L * 1024L)
+			.<HashCode, byte[]>weigher((key, payload) -> payload.length + ENTRY_OVERHEAD)
+			.recordStats()
+			.build();
+	}
+
+	public static boolean isEnabled() {
+		return CACHE != null;
+	}
+
+	public static HashCode hash(final byte[] data) {
+		return HASH_FUNCTION.hashBytes(data);
+	}
+
+	public static byte[] get(final HashCode key) {
+		return CACHE.getIfPresent(key);
+	}
+
+	public static void put(final HashCode key, final byte[] payload) {
+		CACHE.put(key, payload);
+	}
+
+	/**
+	 * Builds a summary of the cache usage since the last call.
+	 *
+	 * @return the summary, or null if the cache is disabled or hasn't been used
+	 */
+	public static synchronized String reportMetrics() {
+		if (CACHE == null) {
+			return null;
+		}
+		final CacheStats stats = CACHE.stats();
+		final CacheStats delta = stats.minus(lastStats);
+		lastStats = stats;
+		if (delta.requestCount() == 0) {
+			return null;
+		}
+		return String.format("Chunk cache: %d hits, %d misses (%.1f%% hit rate), %d evictions, %d entries",
+			delta.hitCount(), delta.missCount(), delta.hitRate() * 100, delta.evictionCount(), CACHE.size());
+	}
+}
@@ -17,20 +17,19 @@
  */
 package com.viaversion.viarewind.api.type.chunk;
 
-import com.viaversion.viarewind.utils.ExtendedBlockStorage;
 import com.viaversion.viaversion.api.minecraft.chunks.*;
 import com.viaversion.viaversion.api.type.Type;
 import com.viaversion.viaversion.util.Pair;
 import io.netty.buffer.ByteBuf;
 
-import java.io.ByteArrayOutputStream;
-import java.io.IOException;
-import java.util.zip.Deflater;
-
 public class ChunkType1_7_6 extends Type<Chunk> {
 
 	public static final ChunkType1_7_6 TYPE = new ChunkType1_7_6();
 
+	private static final int SECTION_COUNT = 16;
+	private static final int SECTION_SIZE = 16 * 16 * 16;
+	private static final int NIBBLE_ARRAY_LENGTH = SECTION_SIZE / 2;
+
 	public ChunkType1_7_6() {
 		super(Chunk.class);
 	}
@@ -46,89 +45,151 @@ public class ChunkType1_7_6 extends Type<Chunk> {
 		final byte[] data = chunkData.key();
 		final short additionalBitMask = chunkData.value();
 
-		final Deflater deflater = new Deflater();
-		byte[] compressedData;
-		int compressedSize;
-		try {
-			deflater.setInput(data, 0, data.length);
-			deflater.finish();
-			compressedData = new byte[data.length];
-			compressedSize = deflater.deflate(compressedData);
-		} finally {
-			deflater.end();
-		}
-
 		output.writeInt(chunk.getX());
 		output.writeInt(chunk.getZ());
 		output.writeBoolean(chunk.isFullChunk());
 		output.writeShort(chunk.getBitmask());
 		output.writeShort(additionalBitMask);
-		output.writeInt(compressedSize);
-		output.writeBytes(compressedData, 0, compressedSize);
+
+		final int compressedSizeIndex = output.writerIndex();
+		output.writeInt(0); // compressed size, set after compressing
+		final int compressedSize = ChunkCompression.compress(data, output, 1);
+		output.setInt(compressedSizeIndex, compressedSize);
 	}
 
-	public static Pair<byte[], Short> serialize(final Chunk chunk) throws IOException {
-		final ExtendedBlockStorage[] storageArrays = new ExtendedBlockStorage[16];
-		for (int i = 0; i < storageArrays.length; i++) {
-			final ChunkSection section = chunk.getSections()[i];
-			if (section != null) {
-				final ExtendedBlockStorage storage = storageArrays[i] = new ExtendedBlockStorage(section.getLight().hasSkyLight());
-				for (int x = 0; x < 16; x++) {
-					for (int z = 0; z < 16; z++) {
-						for (int y = 0; y < 16; y++) {
-							final int flatBlock = section.palette(PaletteType.BLOCKS).idAt(x, y, z);
-							storage.setBlockId(x, y, z, flatBlock >> 4);
-							storage.setBlockMetadata(x, y, z, flatBlock & 15);
-						}
-					}
-				}
-				storage.getBlockLightArray().setHandle(section.getLight().getBlockLight());
-				if (section.getLight().hasSkyLight()) {
-					storage.getSkyLightArray().setHandle(section.getLight().getSkyLight());
-				}
+	public static Pair<byte[], Short> serialize(final Chunk chunk) {
+		final short additionalBitMask = getAdditionalBitMask(chunk);
+		final byte[] data = new byte[getSerializedLength(chunk, additionalBitMask)];
+		serialize(chunk, additionalBitMask, data, 0);
+
+		return new Pair<>(data, additionalBitMask);
+	}
+
+	/**
+	 * Computes the bitmask of the sections which contain block ids above 255 and therefore need the additional MSB array.
+	 *
+	 * @param chunk the chunk
+	 * @return the additional bitmask
+	 */
+	public static short getAdditionalBitMask(final Chunk chunk) {
+		short additionalBitMask = 0;
+		for (int i = 0; i < SECTION_COUNT; i++) {
+			if ((chunk.getBitmask() & 1 << i) != 0 && hasBlockMSB(chunk.getSections()[i].palette(PaletteType.BLOCKS))) {
+				additionalBitMask |= (short) (1 << i);
 			}
 		}
+		return additionalBitMask;
+	}
 
-		final ByteArrayOutputStream output = new ByteArrayOutputStream();
+	private static boolean hasBlockMSB(final DataPalette palette) {
+		// Almost no section contains block ids above 255, checking the palette first saves us from looking at every block
+		boolean found = false;
+		for (int i = 0; i < palette.size(); i++) {
+			if (palette.idByIndex(i) >> 4 > 255) {
+				found = true;
+				break;
+			}
+		}
+		if (!found) {
+			return false;
+		}
 
-		for (int i = 0; i < storageArrays.length; i++) {
-			if ((chunk.getBitmask() & 1 << i) != 0) {
-				output.write(storageArrays[i].getBlockLSBArray());
+		// The palette might still contain ids which are no longer used by any block
+		for (int i = 0; i < SECTION_SIZE; i++) {
+			if (palette.idAt(i) >> 4 > 255) {
+				return true;
 			}
 		}
+		return false;
+	}
 
-		for (int i = 0; i < storageArrays.length; i++) {
+	/**
+	 * Computes the exact length of the uncompressed 1.7 chunk data.
+	 *
+	 * @param chunk             the chunk
+	 * @param additionalBitMask the additional bitmask, see {@link #getAdditionalBitMask(Chunk)}
+	 * @return the length in bytes
+	 */
+	public static int getSerializedLength(final Chunk chunk, final short additionalBitMask) {
+		int length = 0;
+		for (int i = 0; i < SECTION_COUNT; i++) {
 			if ((chunk.getBitmask() & 1 << i) != 0) {
-				output.write(storageArrays[i].getBlockMetadataArray().getHandle());
+				length += SECTION_SIZE + NIBBLE_ARRAY_LENGTH * 2; // block lsb, block metadata, block light
+				if (chunk.getSections()[i].getLight().hasSkyLight()) {
+					length += NIBBLE_ARRAY_LENGTH;
+				}
 			}
 		}
+		length += Integer.bitCount(additionalBitMask & 0xFFFF) * NIBBLE_ARRAY_LENGTH; // block msb
 
-		for (int i = 0; i < storageArrays.length; i++) {
-			if ((chunk.getBitmask() & 1 << i) != 0) {
-				output.write(storageArrays[i].getBlockLightArray().getHandle());
+		if (chunk.isFullChunk() && chunk.getBiomeData() != null) {
+			length += chunk.getBiomeData().length;
+		}
+		return length;
+	}
+
+	/**
+	 * Writes the uncompressed 1.7 chunk data directly from the block palettes into the given array.
+	 *
+	 * @param chunk             the chunk
+	 * @param additionalBitMask the additional bitmask, see {@link #getAdditionalBitMask(Chunk)}
+	 * @param output            the array to write into, needs to fit {@link #getSerializedLength(Chunk, short)} bytes after the offset
+	 * @param offset            the offset to start writing at
+	 * @return the offset after the written data
+	 */
+	public static int serialize(final Chunk chunk, final short additionalBitMask, final byte[] output, int offset) {
+		final ChunkSection[] sections = chunk.getSections();
+		final int bitmask = chunk.getBitmask();
+
+		// Block lsb and block metadata, both planes are filled in the same pass
+		int blockOffset = offset;
+		int metadataOffset = offset + Integer.bitCount(bitmask & 0xFFFF) * SECTION_SIZE;
+		for (int i = 0; i < SECTION_COUNT; i++) {
+			if ((bitmask & 1 << i) == 0) continue;
+
+			final DataPalette palette = sections[i].palette(PaletteType.BLOCKS);
+			for (int index = 0; index < SECTION_SIZE; index += 2) {
+				final int first = palette.idAt(index);
+				final int second = palette.idAt(index + 1);
+
+				output[blockOffset + index] = (byte) (first >> 4);
+				output[blockOffset + index + 1] = (byte) (second >> 4);
+				output[metadataOffset + (index >> 1)] = (byte) (first & 15 | (second & 15) << 4);
 			}
+			blockOffset += SECTION_SIZE;
+			metadataOffset += NIBBLE_ARRAY_LENGTH;
 		}
+		offset = metadataOffset;
 
-		for (int i = 0; i < storageArrays.length; i++) {
-			if ((chunk.getBitmask() & 1 << i) != 0 && storageArrays[i].getSkyLightArray() != null) {
-				output.write(storageArrays[i].getSkyLightArray().getHandle());
+		for (int i = 0; i < SECTION_COUNT; i++) {
+			if ((bitmask & 1 << i) != 0) {
+				System.arraycopy(sections[i].getLight().getBlockLight(), 0, output, offset, NIBBLE_ARRAY_LENGTH);
+				offset += NIBBLE_ARRAY_LENGTH;
 			}
 		}
 
-		short additionalBitMask = 0;
-		for (int i = 0; i < storageArrays.length; i++) {
-			if ((chunk.getBitmask() & 1 << i) != 0 && storageArrays[i].hasBlockMSBArray()) {
-				additionalBitMask |= (short) (1 << i);
-				output.write(storageArrays[i].getOrCreateBlockMSBArray().getHandle());
+		for (int i = 0; i < SECTION_COUNT; i++) {
+			if ((bitmask & 1 << i) != 0 && sections[i].getLight().hasSkyLight()) {
+				System.arraycopy(sections[i].getLight().getSkyLight(), 0, output, offset, NIBBLE_ARRAY_LENGTH);
+				offset += NIBBLE_ARRAY_LENGTH;
 			}
 		}
 
+		for (int i = 0; i < SECTION_COUNT; i++) {
+			if ((additionalBitMask & 1 << i) == 0) continue;
+
+			final DataPalette palette = sections[i].palette(PaletteType.BLOCKS);
+			for (int index = 0; index < SECTION_SIZE; index += 2) {
+				output[offset + (index >> 1)] = (byte) (palette.idAt(index) >> 12 & 15 | (palette.idAt(index + 1) >> 12 & 15) << 4);
+			}
+			offset += NIBBLE_ARRAY_LENGTH;
+		}
+
 		if (chunk.isFullChunk() && chunk.getBiomeData() != null) {
 			for (int biome : chunk.getBiomeData()) {
-				output.write(biome);
+				output[offset++] = (byte) biome;
 			}
 		}
-
-		return new Pair<>(output.toByteArray(), additionalBitMask);
+		return offset;
 	}
 }
@@ -0,0 +1,125 @@
+/*
+ * This file is part of ViaRewind - https://github.com/ViaVersion/ViaRewind
+ * Copyright (C) 2018-2024 ViaVersion and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.viaversion.viarewind.api.type.chunk;
+
+import com.viaversion.viarewind.ViaRewind;
+import com.viaversion.viarewind.api.netty.OrderedPacketHandler;
+import com.viaversion.viaversion.api.connection.UserConnection;
+import com.viaversion.viaversion.api.protocol.packet.ClientboundPacketType;
+import com.viaversion.viaversion.api.type.Type;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.Channel;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.function.IntConsumer;
+
+/**
+ * Bounded pool of worker threads which remap, serialize and compress chunks for 1.7 clients, so large chunk packets
+ * don't block the event loop and every other connection on it. Finished packets are written back through the
+ * {@link OrderedPacketHandler} of the connection in the order they were sent by the server.
+ */
+public class ChunkWorkerPool {
+
+	private static final ForkJoinPool POOL = createPool();
+
+	private static ForkJoinPool createPool() {
+		final int threads = ViaRewind.getConfig().getChunkWorkerThreads();
+		if (threads <= 0) {
+			return null;
+		}
+		return new ForkJoinPool(threads, pool -> {
+			final ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+			thread.setName("ViaRewind Chunk Worker #" + thread.getPoolIndex());
+			return thread;
+		}, null, true);
+	}
+
+	/**
+	 * Returns whether chunks for the given connection should be encoded off the event loop. Only possible for server
+	 * side connections, since the encoded packets are written back into the outbound pipeline.
+	 *
+	 * @param user the connection
+	 * @return true if enabled
+	 */
+	public static boolean isEnabled(final UserConnection user) {
+		return POOL != null && !user.isClientSide() && user.getChannel() != null;
+	}
+
+	/**
+	 * Returns whether large chunk packets should be split up and encoded by multiple worker threads at once. Only the
+	 * case for packets which are already encoded on a worker thread, any other thread such as an event loop would be
+	 * blocked while waiting for the other workers, so packets are encoded inline there.
+	 *
+	 * @return true if enabled
+	 */
+	public static boolean isParallel() {
+		return POOL != null && ForkJoinTask.getPool() == POOL && ViaRewind.getConfig().isParallelChunkEncoding();
+	}
+
+	/**
+	 * Runs the given action for every index from 0 to count on the worker pool and waits until all of them are done.
+	 * Needs to be called from a worker thread, see {@link #isParallel()}.
+	 *
+	 * @param count  the amount of indices
+	 * @param action the action to run
+	 */
+	public static void invokeAll(final int count, final IntConsumer action) {
+		final ForkJoinTask<?>[] tasks = new ForkJoinTask<?>[count];
+		for (int i = 0; i < count; i++) {
+			final int index = i;
+			tasks[i] = ForkJoinTask.adapt(() -> action.accept(index));
+		}
+
+		ForkJoinTask.invokeAll(tasks);
+	}
+
+	/**
+	 * Encodes a packet on the worker pool and sends it once all packets sent before it have been written, needs to be
+	 * called from the event loop of the connection while handling the original packet, which should then be cancelled.
+	 *
+	 * @param user       the connection
+	 * @param packetType the packet type to send
+	 * @param writer     writes the packet content, called on a worker thread
+	 */
+	public static void submit(final UserConnection user, final ClientboundPacketType packetType, final PacketWriter writer) {
+		final Channel channel = user.getChannel();
+		final CompletableFuture<ByteBuf> packet = new CompletableFuture<>();
+		OrderedPacketHandler.getOrAdd(channel.pipeline()).enqueue(packet);
+
+		POOL.execute(() -> {
+			final ByteBuf buf = channel.alloc().buffer();
+			try {
+				Type.VAR_INT.writePrimitive(buf, packetType.getId());
+				writer.write(buf);
+				packet.complete(buf);
+			} catch (Throwable throwable) {
+				buf.release();
+				packet.completeExceptionally(throwable);
+			}
+		});
+	}
+
+	@FunctionalInterface
+	public interface PacketWriter {
+
+		void write(ByteBuf buf) throws Exception;
+	}
+}
@@ -17,6 +17,8 @@
  */
 package com.viaversion.viarewind.api.type.item;
 
+import com.viaversion.viarewind.ViaRewind;
+import com.viaversion.viarewind.utils.GzipCompression;
 import com.viaversion.viaversion.api.type.Type;
 import com.viaversion.viaversion.libs.opennbt.tag.builtin.CompoundTag;
 import com.viaversion.viaversion.libs.opennbt.tag.io.NBTIO;
@@ -25,8 +27,6 @@ import io.netty.buffer.ByteBufInputStream;
 import io.netty.buffer.ByteBufOutputStream;
 
 import java.io.IOException;
-import java.util.zip.GZIPInputStream;
-import java.util.zip.GZIPOutputStream;
 
 public class NBTType extends Type<CompoundTag> {
 	public NBTType() {
@@ -42,9 +42,7 @@ public class NBTType extends Type<CompoundTag> {
 
 		ByteBuf compressed = buffer.readSlice(length);
 
-		try (GZIPInputStream gzipStream = new GZIPInputStream(new ByteBufInputStream(compressed))) {
-			return NBTIO.reader(CompoundTag.class).named().read(gzipStream);
-		}
+		return NBTIO.reader(CompoundTag.class).named().read(new ByteBufInputStream(GzipCompression.decompress(compressed)));
 	}
 
 	@Override
@@ -54,16 +52,18 @@ public class NBTType extends Type<CompoundTag> {
 			return;
 		}
 
-		ByteBuf compressedBuf = buffer.alloc().buffer();
+		ByteBuf uncompressedBuf = buffer.alloc().heapBuffer();
 		try {
-			try (GZIPOutputStream gzipStream = new GZIPOutputStream(new ByteBufOutputStream(compressedBuf))) {
-				NBTIO.writer().named().write(gzipStream, nbt);
-			}
+			NBTIO.writer().named().write(new ByteBufOutputStream(uncompressedBuf), nbt);
 
-			buffer.writeShort(compressedBuf.readableBytes());
-			buffer.writeBytes(compressedBuf);
+			// Compressed directly behind the length, which is filled in afterwards
+			final int lengthIndex = buffer.writerIndex();
+			buffer.writeShort(0);
+			final int length = GzipCompression.compress(uncompressedBuf.array(), uncompressedBuf.arrayOffset() + uncompressedBuf.readerIndex(),
+				uncompressedBuf.readableBytes(), buffer, ViaRewind.getConfig().getItemNbtCompressionLevel());
+			buffer.setShort(lengthIndex, length);
 		} finally {
-			compressedBuf.release();
+			uncompressedBuf.release();
 		}
 	}
 }
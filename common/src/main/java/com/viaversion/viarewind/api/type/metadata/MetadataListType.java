@@ -47,8 +47,18 @@ public class MetadataListType extends MetaListTypeTemplate {
 			Types1_7_6_10.METADATA.write(buffer, meta);
 		}
 		if (metadata.isEmpty()) {
-			Types1_7_6_10.METADATA.write(buffer, new Metadata(0, MetaType1_7_6_10.Byte, (byte) 0));
+			writePlaceholder(buffer);
 		}
 		buffer.writeByte(127);
 	}
+
+	/**
+	 * Writes the entry which is sent instead of an empty list, a byte with id 0 and value 0.
+	 *
+	 * @param buffer the buffer
+	 */
+	public static void writePlaceholder(ByteBuf buffer) {
+		buffer.writeByte(MetaType1_7_6_10.Byte.typeId() << 5);
+		buffer.writeByte(0);
+	}
 }
\ No newline at end of file
@@ -18,7 +18,6 @@
 package com.viaversion.viarewind.protocol.protocol1_7_6_10to1_8;
 
 import com.viaversion.viabackwards.api.BackwardsProtocol;
-import com.viaversion.viarewind.ViaRewind;
 import com.viaversion.viarewind.api.data.RewindMappings;
 import com.viaversion.viarewind.protocol.protocol1_7_2_5to1_7_6_10.ClientboundPackets1_7_2_5;
 import com.viaversion.viarewind.protocol.protocol1_7_2_5to1_7_6_10.ServerboundPackets1_7_2_5;
@@ -27,13 +26,10 @@ import com.viaversion.viarewind.protocol.protocol1_7_6_10to1_8.packets.*;
 import com.viaversion.viarewind.protocol.protocol1_7_6_10to1_8.provider.CompressionHandlerProvider;
 import com.viaversion.viarewind.protocol.protocol1_7_6_10to1_8.provider.compression.TrackingCompressionHandlerProvider;
 import com.viaversion.viarewind.protocol.protocol1_7_6_10to1_8.storage.*;
-import com.viaversion.viarewind.protocol.protocol1_7_6_10to1_8.task.WorldBorderUpdateTask;
 import com.viaversion.viaversion.api.Via;
 import com.viaversion.viaversion.api.connection.UserConnection;
 import com.viaversion.viaversion.api.minecraft.ClientWorld;
 import com.viaversion.viaversion.api.platform.providers.ViaProviders;
-import com.viaversion.viaversion.api.protocol.packet.Direction;
-import com.viaversion.viaversion.api.protocol.packet.PacketWrapper;
 import com.viaversion.viaversion.api.protocol.packet.State;
 import com.viaversion.viaversion.api.protocol.remapper.PacketHandlers;
 import com.viaversion.viaversion.api.type.Type;
@@ -42,8 +38,6 @@ import com.viaversion.viaversion.protocols.base.ServerboundLoginPackets;
 import com.viaversion.viaversion.protocols.protocol1_8.ClientboundPackets1_8;
 import com.viaversion.viaversion.protocols.protocol1_8.ServerboundPackets1_8;
 
-import java.util.concurrent.TimeUnit;
-
 public class Protocol1_7_6_10To1_8 extends BackwardsProtocol<ClientboundPackets1_8, ClientboundPackets1_7_2_5, ServerboundPackets1_8, ServerboundPackets1_7_2_5> {
 
 	public static final RewindMappings MAPPINGS = new RewindMappings("1.8", "1.7.10");
@@ -84,6 +78,13 @@ public class Protocol1_7_6_10To1_8 extends BackwardsProtocol<ClientboundPackets1
 				});
 			}
 		});
+		this.registerClientbound(State.LOGIN, ClientboundLoginPackets.GAME_PROFILE.getId(), ClientboundLoginPackets.GAME_PROFILE.getId(), new PacketHandlers() {
+			@Override
+			public void register() {
+				// The platform adds its compression handlers after sending the compression packet, so they can be removed now
+				handler(wrapper -> Via.getManager().getProviders().get(CompressionHandlerProvider.class).onTransformPacket(wrapper.user()));
+			}
+		});
 		this.cancelClientbound(ClientboundPackets1_8.SET_COMPRESSION); // unused
 		this.registerClientbound(ClientboundPackets1_8.KEEP_ALIVE, new PacketHandlers() {
 			@Override
@@ -108,13 +109,6 @@ public class Protocol1_7_6_10To1_8 extends BackwardsProtocol<ClientboundPackets1
 		});
 	}
 
-	@Override
-	public void transform(Direction direction, State state, PacketWrapper packetWrapper) throws Exception {
-		Via.getManager().getProviders().get(CompressionHandlerProvider.class).onTransformPacket(packetWrapper.user());
-
-		super.transform(direction, state, packetWrapper);
-	}
-
 	@Override
 	public void init(UserConnection connection) {
 		connection.addEntityTracker(this.getClass(), new EntityTracker1_8(connection));
@@ -134,10 +128,6 @@ public class Protocol1_7_6_10To1_8 extends BackwardsProtocol<ClientboundPackets1
 	@Override
 	public void register(ViaProviders providers) {
 		providers.register(CompressionHandlerProvider.class, new TrackingCompressionHandlerProvider());
-
-		if (ViaRewind.getConfig().isEmulateWorldBorder()) {
-			Via.getManager().getScheduler().scheduleRepeating(new WorldBorderUpdateTask(), 0L, 50L, TimeUnit.MILLISECONDS);
-		}
 	}
 
 	@Override
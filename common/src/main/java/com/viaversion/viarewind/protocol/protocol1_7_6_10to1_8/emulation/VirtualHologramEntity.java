@@ -17,14 +17,15 @@
  */
 package com.viaversion.viarewind.protocol.protocol1_7_6_10to1_8.emulation;
 
+import com.viaversion.viarewind.api.netty.FlushBatchHandler;
 import com.viaversion.viarewind.protocol.protocol1_7_2_5to1_7_6_10.ClientboundPackets1_7_2_5;
 import com.viaversion.viarewind.protocol.protocol1_7_6_10to1_8.Protocol1_7_6_10To1_8;
 import com.viaversion.viarewind.protocol.protocol1_7_6_10to1_8.metadata.MetaIndex;
 import com.viaversion.viarewind.api.type.Types1_7_6_10;
 import com.viaversion.viarewind.api.type.metadata.MetaType1_7_6_10;
 import com.viaversion.viarewind.protocol.protocol1_7_6_10to1_8.metadata.MetadataRewriter1_7_6_10To1_8;
-import com.viaversion.viarewind.utils.math.AABB;
-import com.viaversion.viarewind.utils.math.Vector3d;
+import com.viaversion.viarewind.protocol.protocol1_7_6_10to1_8.storage.EntityTracker1_8;
+import com.viaversion.viarewind.utils.math.RayTracing;
 import com.viaversion.viaversion.api.connection.UserConnection;
 import com.viaversion.viaversion.api.minecraft.entities.EntityTypes1_10;
 import com.viaversion.viaversion.api.minecraft.metadata.Metadata;
@@ -37,9 +38,10 @@ import com.viaversion.viaversion.rewriter.meta.MetaHandlerEventImpl;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 
 public class VirtualHologramEntity {
-	private final List<Metadata> metadataTracker = new ArrayList<>();
+	private final Metadata[] metadataTracker = new Metadata[32]; // Indexed by metadata id, which are 5 bits in 1.8
 	private double locX, locY, locZ;
 
 	private final UserConnection user;
@@ -48,71 +50,118 @@ public class VirtualHologramEntity {
 	private int[] entityIds = null;
 	private State currentState = null;
 	private String name = null;
+	private byte flags, armorStandFlags;
 	private float yaw, pitch;
 	private float headYaw;
 	private boolean small = false;
 	private boolean marker = false;
 
+	private long cell = EntityTracker1_8.getHologramCell(0, 0);
+
+	// Location of the main entity as known by the client, used for relative moves
+	private boolean dirty;
+	private int sentX, sentY, sentZ;
+	private byte sentYaw, sentPitch, sentHeadYaw;
+
 	public VirtualHologramEntity(final UserConnection user, final int entityId) {
 		this.user = user;
 		this.entityId = entityId;
 	}
 
-	public void setPosition(final double x, final double y, final double z) throws Exception {
+	public void setPosition(final double x, final double y, final double z) {
 		if (x == this.locX && y == this.locY && z == this.locZ) return;
 		this.locX = x;
 		this.locY = y;
 		this.locZ = z;
 
-		updateLocation(false);
+		moved();
+		markDirty();
 	}
 
-	public void setRelativePosition(final double x, final double y, final double z) throws Exception {
+	public void setRelativePosition(final double x, final double y, final double z) {
 		if (x == 0.0 && y == 0.0 && z == 0.0) return;
 		this.locX += x;
 		this.locY += y;
 		this.locZ += z;
 
-		updateLocation(false);
+		moved();
+		markDirty();
 	}
 
-	public void setRotation(final float yaw, final float pitch) throws Exception {
-		if (this.yaw == yaw || this.headYaw == yaw || this.pitch == pitch) return;
+	public void setRotation(final float yaw, final float pitch) {
+		if (this.yaw == yaw && this.headYaw == yaw && this.pitch == pitch) return;
 		this.yaw = yaw;
 		this.headYaw = yaw;
 		this.pitch = pitch;
 
-		updateLocation(false);
+		markDirty();
 	}
 
-	public void setHeadYaw(float yaw) throws Exception {
+	public void setHeadYaw(float yaw) {
 		if (this.headYaw == yaw) return;
 		this.headYaw = yaw;
 
-		updateLocation(false);
+		markDirty();
+	}
+
+	private void moved() {
+		final long cell = EntityTracker1_8.getHologramCell(locX, locZ);
+		if (cell != this.cell) {
+			user.getEntityTracker(Protocol1_7_6_10To1_8.class).moveHologram(this, this.cell, cell);
+			this.cell = cell;
+		}
+	}
+
+	private void markDirty() {
+		if (!dirty) {
+			dirty = true;
+			user.getEntityTracker(Protocol1_7_6_10To1_8.class).markHologramDirty(this);
+		}
+	}
+
+	/**
+	 * Sends the location changes since the last update, called once after all queued movement packets of the server
+	 * have been handled.
+	 */
+	public void flushLocation() throws Exception {
+		dirty = false;
+		sendLocation(false);
 	}
 
 	public void syncState(final MetadataRewriter1_7_6_10To1_8 entityRewriter, final List<Metadata> metadataList) throws Exception {
-		// Merge metadata updates into current tracker
+		FlushBatchHandler.batch(user, () -> updateState(entityRewriter, metadataList));
+	}
+
+	private void updateState(final MetadataRewriter1_7_6_10To1_8 entityRewriter, final List<Metadata> metadataList) throws Exception {
+		// Merge metadata updates into current tracker and only update the derived data which has been changed
+		boolean zombieMetaChanged = false;
+		boolean nameChanged = false;
 		for (Metadata metadata : metadataList) {
-			metadataTracker.removeIf(m -> m.id() == metadata.id());
-			metadataTracker.add(metadata);
-		}
+			final int id = metadata.id();
+			if (id < 0 || id >= metadataTracker.length) {
+				continue;
+			}
+			final Metadata previous = metadataTracker[id];
+			metadataTracker[id] = metadata;
 
-		// Filter armor stand data to calculate emulation
-		byte flags = 0;
-		byte armorStandFlags = 0;
-		for (Metadata metadata : metadataTracker) {
-			if (metadata.id() == 0 && metadata.metaType() == MetaType1_8.Byte) {
-				flags = ((Number) metadata.getValue()).byteValue();
-			} else if (metadata.id() == 2 && metadata.metaType() == MetaType1_8.String) {
-				name = metadata.getValue().toString();
+			if (id == 0) {
+				flags = byteValue(metadata);
+			} else if (id == 2 && metadata.metaType() == MetaType1_8.String) {
+				String name = metadata.getValue().toString();
 				if (name != null && name.isEmpty()) name = null;
-			} else if (metadata.id() == 10 && metadata.metaType() == MetaType1_8.Byte) {
-				armorStandFlags = ((Number) metadata.getValue()).byteValue();
+				if (!Objects.equals(this.name, name)) {
+					this.name = name;
+					nameChanged = true;
+				}
+			} else if (id == 10) {
+				armorStandFlags = byteValue(metadata);
+			}
+			if (id <= 9 && (previous == null || previous.metaType() != metadata.metaType() || !Objects.equals(previous.getValue(), metadata.getValue()))) {
+				zombieMetaChanged = true;
 			}
 		}
 		final boolean invisible = (flags & 0x20) != 0;
+		final boolean wasSmall = small;
 		small = (armorStandFlags & 0x01) != 0;
 		marker = (armorStandFlags & 0x10) != 0;
 
@@ -127,24 +176,34 @@ public class VirtualHologramEntity {
 			deleteEntity();
 			sendSpawnPacket(entityRewriter);
 		} else {
-			sendMetadataUpdate(entityRewriter);
-			updateLocation(false);
+			if (currentState == State.ZOMBIE ? zombieMetaChanged || small != wasSmall : nameChanged) {
+				sendMetadataUpdate(entityRewriter);
+			}
+			markDirty(); // The skull offset depends on the armor stand flags
 		}
 	}
 
-	private void updateLocation(final boolean remount) throws Exception {
+	private static byte byteValue(final Metadata metadata) {
+		return metadata.metaType() == MetaType1_8.Byte ? ((Number) metadata.getValue()).byteValue() : 0;
+	}
+
+	private void sendLocation(final boolean remount) throws Exception {
 		if (entityIds == null) {
 			return;
 		}
 		if (currentState == State.ZOMBIE) {
-			teleportEntity(entityId, locX, locY, locZ, yaw, pitch);
+			moveEntity(locX, locY, locZ, yaw, pitch, remount);
 
-			final PacketWrapper entityHeadLook = PacketWrapper.create(ClientboundPackets1_7_2_5.ENTITY_HEAD_LOOK, user);
+			final byte headYaw = (byte) ((this.headYaw / 360f) * 256);
+			if (remount || headYaw != sentHeadYaw) {
+				final PacketWrapper entityHeadLook = PacketWrapper.create(ClientboundPackets1_7_2_5.ENTITY_HEAD_LOOK, user);
 
-			entityHeadLook.write(Type.INT, entityId);
-			entityHeadLook.write(Type.BYTE, (byte) ((headYaw / 360f) * 256));
+				entityHeadLook.write(Type.INT, entityId);
+				entityHeadLook.write(Type.BYTE, headYaw);
 
-			entityHeadLook.send(Protocol1_7_6_10To1_8.class);
+				entityHeadLook.send(Protocol1_7_6_10To1_8.class);
+				sentHeadYaw = headYaw;
+			}
 		} else if (currentState == State.HOLOGRAM) {
 			if (remount) {
 				PacketWrapper detach = PacketWrapper.create(ClientboundPackets1_7_2_5.ATTACH_ENTITY, user);
@@ -155,7 +214,7 @@ public class VirtualHologramEntity {
 			}
 
 			// Don't ask me where this offset is coming from
-			teleportEntity(entityIds[0], locX, (locY + (marker ? 54.85 : small ? 56 : 57) - 0.16), locZ, 0, 0); // Skull
+			moveEntity(locX, (locY + (marker ? 54.85 : small ? 56 : 57) - 0.16), locZ, 0, 0, remount); // Skull
 
 			if (remount) {
 				teleportEntity(entityIds[1], locX, locY + 56.75, locZ, 0, 0); // Horse
@@ -169,6 +228,59 @@ public class VirtualHologramEntity {
 		}
 	}
 
+	/**
+	 * Moves the main entity to the given location, using a relative move if the client already knows a location close
+	 * enough and skipping the packet entirely if nothing changed.
+	 */
+	private void moveEntity(final double x, final double y, final double z, final float yaw, final float pitch, final boolean teleport) throws Exception {
+		final int fixedX = (int) (x * 32.0);
+		final int fixedY = (int) (y * 32.0);
+		final int fixedZ = (int) (z * 32.0);
+		final byte fixedYaw = (byte) ((yaw / 360f) * 256);
+		final byte fixedPitch = (byte) ((pitch / 360f) * 256);
+
+		final int deltaX = fixedX - sentX;
+		final int deltaY = fixedY - sentY;
+		final int deltaZ = fixedZ - sentZ;
+		final boolean moved = deltaX != 0 || deltaY != 0 || deltaZ != 0;
+		final boolean rotated = fixedYaw != sentYaw || fixedPitch != sentPitch;
+
+		if (teleport || !fitsInByte(deltaX) || !fitsInByte(deltaY) || !fitsInByte(deltaZ)) {
+			teleportEntity(entityIds[0], x, y, z, yaw, pitch);
+		} else if (moved) {
+			final PacketWrapper entityPosition = PacketWrapper.create(rotated ? ClientboundPackets1_7_2_5.ENTITY_POSITION_AND_ROTATION : ClientboundPackets1_7_2_5.ENTITY_POSITION, user);
+
+			entityPosition.write(Type.INT, entityIds[0]); // entity id
+			entityPosition.write(Type.BYTE, (byte) deltaX); // x
+			entityPosition.write(Type.BYTE, (byte) deltaY); // y
+			entityPosition.write(Type.BYTE, (byte) deltaZ); // z
+			if (rotated) {
+				entityPosition.write(Type.BYTE, fixedYaw); // yaw
+				entityPosition.write(Type.BYTE, fixedPitch); // pitch
+			}
+
+			entityPosition.send(Protocol1_7_6_10To1_8.class);
+		} else if (rotated) {
+			final PacketWrapper entityRotation = PacketWrapper.create(ClientboundPackets1_7_2_5.ENTITY_ROTATION, user);
+
+			entityRotation.write(Type.INT, entityIds[0]); // entity id
+			entityRotation.write(Type.BYTE, fixedYaw); // yaw
+			entityRotation.write(Type.BYTE, fixedPitch); // pitch
+
+			entityRotation.send(Protocol1_7_6_10To1_8.class);
+		}
+
+		sentX = fixedX;
+		sentY = fixedY;
+		sentZ = fixedZ;
+		sentYaw = fixedYaw;
+		sentPitch = fixedPitch;
+	}
+
+	private static boolean fitsInByte(final int delta) {
+		return delta >= Byte.MIN_VALUE && delta <= Byte.MAX_VALUE;
+	}
+
 	protected void teleportEntity(final int entityId, final double x, final double y, final double z, final float yaw, final float pitch) throws Exception {
 		final PacketWrapper entityTeleport = PacketWrapper.create(ClientboundPackets1_7_2_5.ENTITY_TELEPORT, user);
 
@@ -222,9 +334,9 @@ public class VirtualHologramEntity {
 
 		// Filter metadata sent by the server and convert them together with our custom metadata
 		final List<Metadata> metadataList = new ArrayList<>();
-		for (Metadata metadata : metadataTracker) {
-			// Remove non existent metadata
-			if (metadata.id() < 0 || metadata.id() > 9) {
+		for (int id = 0; id <= 9; id++) { // Remove non existent metadata
+			final Metadata metadata = metadataTracker[id];
+			if (metadata == null) {
 				continue;
 			}
 			metadataList.add(new Metadata(metadata.id(), metadata.metaType(), metadata.getValue()));
@@ -263,6 +375,10 @@ public class VirtualHologramEntity {
 	}
 
 	public void sendSpawnPacket(final MetadataRewriter1_7_6_10To1_8 entityRewriter) throws Exception {
+		FlushBatchHandler.batch(user, () -> spawn(entityRewriter));
+	}
+
+	private void spawn(final MetadataRewriter1_7_6_10To1_8 entityRewriter) throws Exception {
 		if (entityIds != null) {
 			deleteEntity();
 		}
@@ -290,17 +406,50 @@ public class VirtualHologramEntity {
 		}
 
 		sendMetadataUpdate(entityRewriter);
-		updateLocation(true);
+		sendLocation(true);
+	}
+
+	// Lower corner of the bounding box
+	public double getMinX() {
+		return this.locX - getWidth() / 2;
 	}
 
-	public AABB getBoundingBox() {
-		final double width = this.small ? 0.25 : 0.5;
-		final double height = this.small ? 0.9875 : 1.975;
+	public double getMinY() {
+		return this.locY;
+	}
+
+	public double getMinZ() {
+		return this.locZ - getWidth() / 2;
+	}
+
+	/**
+	 * Intersects the given ray with the bounding box of this hologram.
+	 *
+	 * @return the distance along the ray to the entry point, or NaN if the ray doesn't hit the hologram
+	 * @see RayTracing#intersect
+	 */
+	public double trace(final double x, final double y, final double z, final double dirX, final double dirY, final double dirZ, final double distance) {
+		if (entityIds == null) {
+			return Double.NaN;
+		}
+		final double width = getWidth();
+		final double height = getHeight();
 
-		final Vector3d min = new Vector3d(this.locX - width / 2, this.locY, this.locZ - width / 2);
-		final Vector3d max = new Vector3d(this.locX + width / 2, this.locY + height, this.locZ + width / 2);
+		return RayTracing.intersect(x, y, z, dirX, dirY, dirZ,
+			this.locX - width / 2, this.locY, this.locZ - width / 2,
+			this.locX + width / 2, this.locY + height, this.locZ + width / 2, distance);
+	}
+
+	private double getWidth() {
+		return this.small ? 0.25 : 0.5;
+	}
+
+	private double getHeight() {
+		return this.small ? 0.9875 : 1.975;
+	}
 
-		return new AABB(min, max);
+	public long getCell() {
+		return cell;
 	}
 
 	private int additionalEntityId() {
@@ -21,10 +21,9 @@ import com.viaversion.viarewind.api.type.metadata.MetaType1_7_6_10;
 import com.viaversion.viaversion.api.minecraft.entities.EntityType;
 import com.viaversion.viaversion.api.minecraft.entities.EntityTypes1_10;
 import com.viaversion.viaversion.api.minecraft.metadata.types.MetaType1_8;
-import com.viaversion.viaversion.util.Pair;
 
-import java.util.HashMap;
-import java.util.Optional;
+import java.util.ArrayList;
+import java.util.List;
 
 public enum MetaIndex {
 
@@ -140,11 +139,32 @@ public enum MetaIndex {
 
 	ENDER_CRYSTAL_HEALTH(EntityTypes1_10.EntityType.ENDER_CRYSTAL, 8, MetaType1_7_6_10.Int, 9, MetaType1_8.Int);
 
-	private static final HashMap<Pair<EntityTypes1_10.EntityType, Integer>, MetaIndex> metadataRewrites = new HashMap<>();
+	// Entity type ordinal -> metadata index -> rewrite, with the entries of all parent types already resolved
+	private static final MetaIndex[][] metadataRewrites;
 
 	static {
+		int maxIndex = 0;
 		for (MetaIndex index : MetaIndex.values()) {
-			metadataRewrites.put(new Pair<>(index.getClazz(), index.getNewIndex()), index);
+			maxIndex = Math.max(maxIndex, index.getNewIndex());
+		}
+
+		final EntityTypes1_10.EntityType[] types = EntityTypes1_10.EntityType.values();
+		metadataRewrites = new MetaIndex[types.length][maxIndex + 1];
+		for (EntityTypes1_10.EntityType type : types) {
+			final List<EntityType> hierarchy = new ArrayList<>();
+			for (EntityType current = type; current != null; current = current.getParent()) {
+				hierarchy.add(current);
+			}
+
+			// Start at the root, so entries of a type override the ones of its parents
+			final MetaIndex[] rewrites = metadataRewrites[type.ordinal()];
+			for (int i = hierarchy.size() - 1; i >= 0; i--) {
+				for (MetaIndex index : MetaIndex.values()) {
+					if (index.getClazz() == hierarchy.get(i)) {
+						rewrites[index.getNewIndex()] = index;
+					}
+				}
+			}
 		}
 	}
 
@@ -170,15 +190,6 @@ public enum MetaIndex {
 		this.newType = newType;
 	}
 
-	private static Optional<MetaIndex> getIndex(EntityType type, int index) {
-		Pair<EntityType, Integer> pair = new Pair<>(type, index);
-		if (metadataRewrites.containsKey(pair)) {
-			return Optional.of(metadataRewrites.get(pair));
-		}
-
-		return Optional.empty();
-	}
-
 	public EntityTypes1_10.EntityType getClazz() {
 		return clazz;
 	}
@@ -200,17 +211,10 @@ public enum MetaIndex {
 	}
 
 	public static MetaIndex searchIndex(EntityType type, int index) {
-		EntityType currentType = type;
-		do {
-			Optional<MetaIndex> optMeta = getIndex(currentType, index);
-
-			if (optMeta.isPresent()) {
-				return optMeta.get();
-			}
-
-			currentType = currentType.getParent();
-		} while (currentType != null);
-
-		return null;
+		if (!(type instanceof EntityTypes1_10.EntityType) || index < 0) {
+			return null;
+		}
+		final MetaIndex[] rewrites = metadataRewrites[((EntityTypes1_10.EntityType) type).ordinal()];
+		return index < rewrites.length ? rewrites[index] : null;
 	}
 }
\ No newline at end of file
@@ -21,6 +21,7 @@ import com.viaversion.viarewind.ViaRewind;
 import com.viaversion.viarewind.api.rewriter.VREntityRewriter;
 import com.viaversion.viarewind.api.type.Types1_7_6_10;
 import com.viaversion.viarewind.api.type.metadata.MetaType1_7_6_10;
+import com.viaversion.viarewind.api.type.metadata.MetadataListType;
 import com.viaversion.viarewind.protocol.protocol1_7_2_5to1_7_6_10.ClientboundPackets1_7_2_5;
 import com.viaversion.viarewind.protocol.protocol1_7_6_10to1_8.Protocol1_7_6_10To1_8;
 import com.viaversion.viarewind.protocol.protocol1_7_6_10to1_8.emulation.VirtualHologramEntity;
@@ -28,6 +29,7 @@ import com.viaversion.viarewind.protocol.protocol1_7_6_10to1_8.storage.EntityTra
 import com.viaversion.viarewind.protocol.protocol1_7_6_10to1_8.storage.GameProfileStorage;
 import com.viaversion.viarewind.protocol.protocol1_7_6_10to1_8.storage.Scoreboard;
 import com.viaversion.viaversion.api.Via;
+import com.viaversion.viaversion.api.connection.UserConnection;
 import com.viaversion.viaversion.api.minecraft.ClientWorld;
 import com.viaversion.viaversion.api.minecraft.Position;
 import com.viaversion.viaversion.api.minecraft.entities.EntityTypes1_10;
@@ -42,6 +44,7 @@ import com.viaversion.viaversion.api.type.types.version.Types1_8;
 import com.viaversion.viaversion.protocols.protocol1_8.ClientboundPackets1_8;
 import com.viaversion.viaversion.rewriter.meta.MetaHandlerEvent;
 import com.viaversion.viaversion.util.IdAndData;
+import io.netty.buffer.ByteBuf;
 
 import java.util.List;
 import java.util.UUID;
@@ -49,8 +52,15 @@ import java.util.logging.Level;
 
 public class MetadataRewriter1_7_6_10To1_8 extends VREntityRewriter<ClientboundPackets1_8, Protocol1_7_6_10To1_8> {
 
+	// Conversion of each metadata index, null if the entries are dropped
+	private final MetaTransformer[] transformers = new MetaTransformer[MetaIndex.values().length];
+	private final MetadataStreamType metadataStreamType = new MetadataStreamType();
+
 	public MetadataRewriter1_7_6_10To1_8(Protocol1_7_6_10To1_8 protocol) {
 		super(protocol, MetaType1_7_6_10.String, MetaType1_7_6_10.Byte);
+		for (MetaIndex index : MetaIndex.values()) {
+			transformers[index.ordinal()] = compileTransformer(index);
+		}
 	}
 
 	@Override
@@ -101,11 +111,33 @@ public class MetadataRewriter1_7_6_10To1_8 extends VREntityRewriter<ClientboundP
 			@Override
 			public void register() {
 				map(Type.VAR_INT, Type.INT); // Entity id
-				map(Types1_8.METADATA_LIST, Types1_7_6_10.METADATA_LIST); // Metadata
 				handler(wrapper -> {
 					final int entityId = wrapper.get(Type.INT, 0);
-					final List<Metadata> metadata = wrapper.get(Types1_7_6_10.METADATA_LIST, 0);
+					final EntityTracker1_8 tracker = tracker(wrapper.user());
+
+					// Armor stands are emulated, so their metadata is synced once per packet instead of per entry
+					final VirtualHologramEntity hologram = tracker.getHolograms().get(entityId);
+					if (hologram != null) {
+						wrapper.cancel();
+						hologram.syncState(protocol().getEntityRewriter(), wrapper.read(Types1_8.METADATA_LIST));
+						return;
+					}
+
+					// Without entity data mappings only the index rewrites apply, which can be done while copying the entries.
+					// Only possible if the list is still in the packet input, protocols before this one or packets created
+					// by them can already have written it as a list
+					final EntityType type = (EntityType) tracker.entityType(entityId);
+					if ((type == null || entityDataForType(type) == null) && !wrapper.isReadable(Types1_8.METADATA_LIST, 0)) {
+						final MetadataStream stream = wrapper.read(metadataStreamType);
+						stream.user = wrapper.user();
+						stream.type = type;
+						wrapper.write(metadataStreamType, stream);
+						return;
+					}
+
+					final List<Metadata> metadata = wrapper.read(Types1_8.METADATA_LIST);
 					handleMetadata(entityId, metadata, wrapper.user());
+					wrapper.write(Types1_7_6_10.METADATA_LIST, metadata);
 				});
 			}
 		});
@@ -345,68 +377,219 @@ public class MetadataRewriter1_7_6_10To1_8 extends VREntityRewriter<ClientboundP
 
 	public void handleMetadata(MetaHandlerEvent event, Metadata metadata) throws Exception {
 		if (event.entityType() == EntityType.ARMOR_STAND) {
-			final EntityTracker1_8 tracker = tracker(event.user());
-			tracker.getHolograms().get(event.entityId()).syncState(this, event.metadataList());
-			event.cancel(); // We are rewriting metadata manually
+			// Left untouched, the whole list is synced to the hologram by the packet handlers
 			return;
 		}
 
-		final MetaIndex metaIndex = MetaIndex.searchIndex(event.entityType(), metadata.id());
+		if (!rewriteEntry(event.user(), event.entityType(), metadata)) {
+			event.cancel();
+		}
+	}
+
+	/**
+	 * Rewrites a single 1.8 metadata entry of the given entity type to 1.7.
+	 *
+	 * @param user     the connection
+	 * @param type     the entity type, or null if the entity isn't tracked
+	 * @param metadata the entry to rewrite
+	 * @return false if the entry has to be removed
+	 */
+	boolean rewriteEntry(final UserConnection user, final EntityType type, final Metadata metadata) throws Exception {
+		final MetaIndex metaIndex = MetaIndex.searchIndex(type, metadata.id());
 		if (metaIndex == null) {
 			// Almost certainly bad data, remove it
-			event.cancel();
-			return;
+			return false;
 		}
-		if (metaIndex.getOldType() == null) {
-			event.cancel();
-			return;
+		// Compared by id, entries added by the entity data rewrites already use the 1.7 types
+		if (metaIndex.getNewType().typeId() != metadata.metaType().typeId()) {
+			return false;
+		}
+		final MetaTransformer transformer = transformers[metaIndex.ordinal()];
+		if (transformer == null) {
+			return false;
 		}
-		final Object value = metadata.getValue();
-		metadata.setTypeAndValue(metaIndex.getNewType(), value);
-		metadata.setMetaTypeUnsafe(metaIndex.getOldType());
+		metadata.setTypeAndValue(metaIndex.getOldType(), transformer.transform(user, metadata.getValue()));
 		metadata.setId(metaIndex.getIndex());
+		return true;
+	}
+
+	/**
+	 * Reads a 1.8 metadata list and writes the 1.7 entries directly to the output, without creating a {@link Metadata}
+	 * for each entry. Does the same as {@link #rewriteEntry(UserConnection, EntityType, Metadata)} for entity types
+	 * without any entity data mappings, only items are converted through their {@link MetaTransformer}.
+	 *
+	 * @param user   the connection
+	 * @param type   the entity type, or null if the entity isn't tracked
+	 * @param input  the 1.8 metadata list
+	 * @param output the buffer to write the 1.7 metadata list to
+	 */
+	@SuppressWarnings("unchecked")
+	void rewriteMetadata(final UserConnection user, final EntityType type, final ByteBuf input, final ByteBuf output) throws Exception {
+		boolean empty = true;
+		byte item;
+		while ((item = input.readByte()) != 127) {
+			final MetaType1_8 metaType = MetaType1_8.byId((item & 224) >> 5);
+			final MetaIndex metaIndex = MetaIndex.searchIndex(type, item & 31);
+			if (metaIndex == null || metaIndex.getNewType() != metaType || transformers[metaIndex.ordinal()] == null) {
+				skipValue(metaType, input);
+				continue;
+			}
+
+			final int header = (metaIndex.getOldType().typeId() << 5 | metaIndex.getIndex() & 31) & 255;
+			switch (metaIndex.getOldType()) {
+				case Byte: {
+					if (metaType == MetaType1_8.Int) {
+						output.writeByte(header);
+						output.writeByte(input.readInt());
+						break;
+					}
+					byte value = input.readByte();
+					if (metaIndex == MetaIndex.HUMAN_SKIN_FLAGS) {
+						value = (byte) ((value & 0x01) != 0 ? 0x00 : 0x02); // Cape
+					} else if (metaIndex == MetaIndex.ITEM_FRAME_ROTATION) {
+						value = (byte) (value % 4);
+					}
+					output.writeByte(header);
+					output.writeByte(value);
+					break;
+				}
+				case Int: {
+					final int value;
+					if (metaType == MetaType1_8.Byte) {
+						final byte age = input.readByte();
+						value = metaIndex == MetaIndex.ENTITY_AGEABLE_AGE && age < 0 ? -25000 : age;
+					} else if (metaType == MetaType1_8.Short) {
+						value = input.readShort();
+					} else {
+						value = input.readInt();
+					}
+					output.writeByte(header);
+					output.writeInt(value);
+					break;
+				}
+				default: {
+					// Read outside of the try, the rest of the list can't be read anymore if this fails
+					final Object value = metaType.type().read(input);
+					final Object oldValue;
+					try {
+						oldValue = transformers[metaIndex.ordinal()].transform(user, value);
+					} catch (Exception e) {
+						if (Via.getManager().isDebug()) {
+							ViaRewind.getPlatform().getLogger().log(Level.SEVERE, "An error occurred with entity metadata: " + metaIndex, e);
+						}
+						continue;
+					}
+					output.writeByte(header);
+					((Type<Object>) metaIndex.getOldType().type()).write(output, oldValue);
+					break;
+				}
+			}
+			empty = false;
+		}
+		if (empty) {
+			MetadataListType.writePlaceholder(output);
+		}
+		output.writeByte(127);
+	}
+
+	private static void skipValue(final MetaType1_8 metaType, final ByteBuf input) throws Exception {
+		switch (metaType) {
+			case Byte:
+				input.skipBytes(Byte.BYTES);
+				break;
+			case Short:
+				input.skipBytes(Short.BYTES);
+				break;
+			case Int:
+			case Float:
+				input.skipBytes(Integer.BYTES);
+				break;
+			case String:
+				input.skipBytes(Type.VAR_INT.readPrimitive(input));
+				break;
+			case Position:
+			case Rotation:
+				input.skipBytes(3 * Integer.BYTES);
+				break;
+			default:
+				metaType.type().read(input);
+				break;
+		}
+	}
 
+	private MetaTransformer compileTransformer(final MetaIndex metaIndex) {
+		if (metaIndex.getOldType() == null) {
+			return null;
+		}
+		final MetaType1_8 newType = metaIndex.getNewType();
 		switch (metaIndex.getOldType()) {
 			case Int:
-				if (metaIndex.getNewType() == MetaType1_8.Byte) {
-					metadata.setValue(((Byte) value).intValue());
+				if (newType == MetaType1_8.Byte) {
 					if (metaIndex == MetaIndex.ENTITY_AGEABLE_AGE) {
-						if ((Integer) metadata.getValue() < 0) {
-							metadata.setValue(-25000);
-						}
+						return (user, value) -> (Byte) value < 0 ? -25000 : ((Byte) value).intValue();
 					}
+					return (user, value) -> ((Byte) value).intValue();
 				}
-				if (metaIndex.getNewType() == MetaType1_8.Short) {
-					metadata.setValue(((Short) value).intValue());
+				if (newType == MetaType1_8.Short) {
+					return (user, value) -> ((Short) value).intValue();
 				}
-				if (metaIndex.getNewType() == MetaType1_8.Int) {
-					metadata.setValue(value);
-				}
-				break;
+				return (user, value) -> value;
 			case Byte:
-				if (metaIndex.getNewType() == MetaType1_8.Int) {
-					metadata.setValue(((Integer) value).byteValue());
+				if (metaIndex == MetaIndex.HUMAN_SKIN_FLAGS) {
+					return (user, value) -> (byte) (((Byte) value & 0x01) != 0 ? 0x00 : 0x02); // Cape
 				}
-				if (metaIndex.getNewType() == MetaType1_8.Byte) {
-					if (metaIndex == MetaIndex.ITEM_FRAME_ROTATION) {
-						metadata.setValue(Integer.valueOf((Byte) value % 4).byteValue());
-					} else {
-						metadata.setValue(value);
-					}
+				if (newType == MetaType1_8.Int) {
+					return (user, value) -> ((Integer) value).byteValue();
 				}
-				if (metaIndex == MetaIndex.HUMAN_SKIN_FLAGS) {
-					byte flags = (byte) value;
-					boolean cape = (flags & 0x01) != 0;
-					flags = (byte) (cape ? 0x00 : 0x02);
-					metadata.setValue(flags);
+				if (metaIndex == MetaIndex.ITEM_FRAME_ROTATION) {
+					return (user, value) -> (byte) ((Byte) value % 4);
 				}
-				break;
+				return (user, value) -> value;
 			case Slot:
-				metadata.setValue(protocol.getItemRewriter().handleItemToClient(event.user(), (Item) value));
-				break;
+				return (user, value) -> protocol.getItemRewriter().handleItemToClient(user, (Item) value);
 			default:
-				event.cancel();
-				break;
+				return null;
+		}
+	}
+
+	@FunctionalInterface
+	private interface MetaTransformer {
+
+		Object transform(UserConnection user, Object value) throws Exception;
+	}
+
+	/**
+	 * The 1.8 metadata list of a packet, which is left in the packet input until it's written to the packet output.
+	 */
+	private static final class MetadataStream {
+		private final ByteBuf input;
+		private UserConnection user;
+		private EntityType type;
+
+		private MetadataStream(final ByteBuf input) {
+			this.input = input;
+		}
+	}
+
+	/**
+	 * Reads the remaining packet input as a {@link MetadataStream} without copying it, and rewrites it into the packet
+	 * output once the packet is written. The input stays valid until then, since the packet is written in the same
+	 * transformation.
+	 */
+	private final class MetadataStreamType extends Type<MetadataStream> {
+
+		private MetadataStreamType() {
+			super("Metadata Stream", MetadataStream.class);
+		}
+
+		@Override
+		public MetadataStream read(ByteBuf buffer) {
+			return new MetadataStream(buffer.readSlice(buffer.readableBytes()));
+		}
+
+		@Override
+		public void write(ByteBuf buffer, MetadataStream stream) throws Exception {
+			rewriteMetadata(stream.user, stream.type, stream.input, buffer);
 		}
 	}
 
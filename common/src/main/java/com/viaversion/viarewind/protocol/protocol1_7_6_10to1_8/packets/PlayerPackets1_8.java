@@ -20,15 +20,12 @@ package com.viaversion.viarewind.protocol.protocol1_7_6_10to1_8.packets;
 import com.viaversion.viarewind.ViaRewind;
 import com.viaversion.viarewind.protocol.protocol1_7_2_5to1_7_6_10.ClientboundPackets1_7_2_5;
 import com.viaversion.viarewind.protocol.protocol1_7_6_10to1_8.Protocol1_7_6_10To1_8;
+import com.viaversion.viarewind.protocol.protocol1_7_6_10to1_8.emulation.VirtualHologramEntity;
 import com.viaversion.viarewind.protocol.protocol1_7_2_5to1_7_6_10.ServerboundPackets1_7_2_5;
 import com.viaversion.viarewind.protocol.protocol1_7_6_10to1_8.provider.TitleRenderProvider;
 import com.viaversion.viarewind.protocol.protocol1_7_6_10to1_8.storage.*;
 import com.viaversion.viarewind.api.type.Types1_7_6_10;
 import com.viaversion.viarewind.utils.ChatUtil;
-import com.viaversion.viarewind.utils.math.AABB;
-import com.viaversion.viarewind.utils.math.Ray3d;
-import com.viaversion.viarewind.utils.math.RayTracing;
-import com.viaversion.viarewind.utils.math.Vector3d;
 import com.viaversion.viaversion.api.Via;
 import com.viaversion.viaversion.api.minecraft.Environment;
 import com.viaversion.viaversion.api.minecraft.Position;
@@ -521,26 +518,29 @@ public class PlayerPackets1_8 {
 					final PlayerSessionStorage position = wrapper.user().get(PlayerSessionStorage.class);
 
 					if (tracker.getHolograms().containsKey(entityId)) {
-						final AABB boundingBox = tracker.getHolograms().get(entityId).getBoundingBox();
-
-						Vector3d pos = new Vector3d(position.getPosX(), position.getPosY() + 1.8, position.getPosZ());
-						double yaw = Math.toRadians(position.yaw);
-						double pitch = Math.toRadians(position.pitch);
-
-						Vector3d dir = new Vector3d(-Math.cos(pitch) * Math.sin(yaw), -Math.sin(pitch), Math.cos(pitch) * Math.cos(yaw));
-						Ray3d ray = new Ray3d(pos, dir);
-						Vector3d intersection = RayTracing.trace(ray, boundingBox, 5.0);
-
-						if (intersection == null) {
+						final double x = position.getPosX();
+						final double y = position.getPosY() + 1.8;
+						final double z = position.getPosZ();
+						final double yaw = Math.toRadians(position.yaw);
+						final double pitch = Math.toRadians(position.pitch);
+
+						final double dirX = -Math.cos(pitch) * Math.sin(yaw);
+						final double dirY = -Math.sin(pitch);
+						final double dirZ = Math.cos(pitch) * Math.cos(yaw);
+
+						// Resolve to the hologram the player is actually looking at, the client may pick another one in dense clusters
+						final VirtualHologramEntity hologram = tracker.traceHologram(x, y, z, dirX, dirY, dirZ, 5.0);
+						if (hologram == null) {
 							return;
 						}
-						intersection.substract(boundingBox.getMin());
+						final double distance = tracker.getTraceDistance();
 
 						mode = 2;
+						wrapper.set(Type.VAR_INT, 0, hologram.getEntityId());
 						wrapper.set(Type.VAR_INT, 1, mode);
-						wrapper.write(Type.FLOAT, (float) intersection.getX());
-						wrapper.write(Type.FLOAT, (float) intersection.getY());
-						wrapper.write(Type.FLOAT, (float) intersection.getZ());
+						wrapper.write(Type.FLOAT, (float) (x + dirX * distance - hologram.getMinX()));
+						wrapper.write(Type.FLOAT, (float) (y + dirY * distance - hologram.getMinY()));
+						wrapper.write(Type.FLOAT, (float) (z + dirZ * distance - hologram.getMinZ()));
 					}
 				});
 			}
@@ -17,15 +17,26 @@
  */
 package com.viaversion.viarewind.protocol.protocol1_7_6_10to1_8.packets;
 
+import com.viaversion.viarewind.ViaRewind;
 import com.viaversion.viarewind.protocol.protocol1_7_6_10to1_8.Protocol1_7_6_10To1_8;
 import com.viaversion.viarewind.protocol.protocol1_7_6_10to1_8.storage.WorldBorderEmulator;
+import com.viaversion.viarewind.protocol.protocol1_7_6_10to1_8.task.WorldBorderUpdateTask;
 import com.viaversion.viarewind.api.type.chunk.ChunkType1_7_6;
 import com.viaversion.viarewind.api.type.chunk.BulkChunkType1_7_6;
+import com.viaversion.viarewind.api.type.chunk.ChunkWorkerPool;
+import com.viaversion.viarewind.protocol.protocol1_7_2_5to1_7_6_10.ClientboundPackets1_7_2_5;
 import com.viaversion.viarewind.protocol.protocol1_7_6_10to1_8.data.ParticleIndex1_7_6_10;
 import com.viaversion.viarewind.api.type.Types1_7_6_10;
+import com.viaversion.viarewind.protocol.protocol1_8to1_9.Protocol1_8To1_9;
+import com.viaversion.viarewind.protocol.protocol1_8to1_9.packets.BlockItemPackets1_9;
+import com.viaversion.viarewind.task.TickScheduler;
 import com.viaversion.viarewind.utils.ChatUtil;
+import com.viaversion.viaversion.api.Via;
 import com.viaversion.viaversion.api.minecraft.BlockChangeRecord;
 import com.viaversion.viaversion.api.minecraft.chunks.Chunk;
+import com.viaversion.viaversion.api.minecraft.chunks.ChunkSection;
+import com.viaversion.viaversion.api.minecraft.chunks.DataPalette;
+import com.viaversion.viaversion.api.minecraft.chunks.PaletteType;
 import com.viaversion.viaversion.api.protocol.packet.PacketWrapper;
 import com.viaversion.viaversion.api.protocol.remapper.PacketHandlers;
 import com.viaversion.viaversion.api.type.Type;
@@ -43,7 +54,18 @@ public class WorldPackets1_8 {
 		protocol.registerClientbound(ClientboundPackets1_8.CHUNK_DATA, wrapper -> {
 			final ClientWorld world = wrapper.user().get(ClientWorld.class);
 			final Chunk chunk = wrapper.read(ChunkType1_8.forEnvironment(world.getEnvironment()));
-			protocol.getItemRewriter().handleChunk(chunk);
+			final boolean remap1_9 = wrapper.user().getProtocolInfo().getPipeline().contains(Protocol1_8To1_9.class);
+
+			if (ChunkWorkerPool.isEnabled(wrapper.user())) {
+				// Remapping and compressing is done on a worker thread, the packet is sent in order once it's done
+				wrapper.cancel();
+				ChunkWorkerPool.submit(wrapper.user(), ClientboundPackets1_7_2_5.CHUNK_DATA, buf -> {
+					remapChunk(protocol, remap1_9, chunk);
+					ChunkType1_7_6.TYPE.write(buf, chunk);
+				});
+				return;
+			}
+			remapChunk(protocol, remap1_9, chunk);
 
 			wrapper.write(ChunkType1_7_6.TYPE, chunk);
 		});
@@ -103,6 +125,17 @@ public class WorldPackets1_8 {
 
 		protocol.registerClientbound(ClientboundPackets1_8.MAP_BULK_CHUNK, wrapper -> {
 			final Chunk[] chunks = wrapper.read(BulkChunkType1_8.TYPE);
+
+			if (ChunkWorkerPool.isEnabled(wrapper.user())) {
+				wrapper.cancel();
+				ChunkWorkerPool.submit(wrapper.user(), ClientboundPackets1_7_2_5.MAP_BULK_CHUNK, buf -> {
+					for (Chunk chunk : chunks) {
+						protocol.getItemRewriter().handleChunk(chunk);
+					}
+					BulkChunkType1_7_6.TYPE.write(buf, chunks);
+				});
+				return;
+			}
 			for (Chunk chunk : chunks) {
 				protocol.getItemRewriter().handleChunk(chunk);
 			}
@@ -285,7 +318,29 @@ public class WorldPackets1_8 {
 					wrapper.read(Type.DOUBLE), wrapper.read(Type.DOUBLE), // old radius, new radius
 					wrapper.read(Type.VAR_LONG) // speed
 				);
+				if (ViaRewind.getConfig().isEmulateWorldBorder()) {
+					TickScheduler.register(wrapper.user(), new WorldBorderUpdateTask());
+				}
 			}
 		});
 	}
+
+	private static void remapChunk(final Protocol1_7_6_10To1_8 protocol, final boolean remap1_9, final Chunk chunk) {
+		if (!remap1_9) {
+			protocol.getItemRewriter().handleChunk(chunk);
+			return;
+		}
+
+		// The 1.9->1.8 protocol leaves the block palette to us, so both block remappings are applied in a single pass
+		final BlockItemPackets1_9 itemRewriter1_9 = Via.getManager().getProtocolManager().getProtocol(Protocol1_8To1_9.class).getItemRewriter();
+		for (ChunkSection section : chunk.getSections()) {
+			if (section == null) continue;
+
+			final DataPalette palette = section.palette(PaletteType.BLOCKS);
+			for (int i = 0; i < palette.size(); i++) {
+				final int block = itemRewriter1_9.handleBlockId(palette.idByIndex(i));
+				palette.setIdByIndex(i, protocol.getItemRewriter().handleBlockId(block));
+			}
+		}
+	}
 }
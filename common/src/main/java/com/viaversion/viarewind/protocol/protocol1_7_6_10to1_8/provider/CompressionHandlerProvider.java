@@ -25,6 +25,13 @@ import io.netty.channel.ChannelHandler;
 public abstract class CompressionHandlerProvider implements Provider {
 
 	public abstract void onHandleLoginCompressionPacket(UserConnection user, int threshold);
+
+	/**
+	 * Called once the login has finished, removes the compression handlers of the platform if the compression packet has
+	 * been handled before. Not called for every packet anymore, so implementations should do all pipeline changes at once.
+	 *
+	 * @param user the connection
+	 */
 	public abstract void onTransformPacket(UserConnection user);
 
 	public abstract ChannelHandler getEncoder(int threshold);
@@ -19,17 +19,20 @@ package com.viaversion.viarewind.protocol.protocol1_7_6_10to1_8.provider.compres
 
 import com.viaversion.viaversion.api.type.Type;
 import io.netty.buffer.ByteBuf;
-import io.netty.buffer.ByteBufAllocator;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.handler.codec.DecoderException;
 import io.netty.handler.codec.MessageToMessageDecoder;
 
 import java.util.List;
+import java.util.zip.DataFormatException;
 import java.util.zip.Inflater;
 
 // https://github.com/Gerrygames/ClientViaVersion/blob/master/src/main/java/de/gerrygames/the5zig/clientviaversion/netty/CompressionDecoder.java
 public class CompressionDecoder extends MessageToMessageDecoder<ByteBuf> {
+	private static final int BUFFER_SIZE = 8192;
+
 	private final Inflater inflater = new Inflater();
+	private final byte[] buffer = new byte[BUFFER_SIZE];
 
 	private final int threshold;
 
@@ -43,7 +46,7 @@ public class CompressionDecoder extends MessageToMessageDecoder<ByteBuf> {
 
 		int outLength = Type.VAR_INT.readPrimitive(in);
 		if (outLength == 0) {
-			out.add(in.readBytes(in.readableBytes()));
+			out.add(in.readSlice(in.readableBytes()).retain());
 			return;
 		}
 
@@ -53,21 +56,34 @@ public class CompressionDecoder extends MessageToMessageDecoder<ByteBuf> {
 			throw new DecoderException("Badly compressed packet - size of " + outLength + " is larger than protocol maximum of " + 2097152);
 		}
 
-		ByteBuf temp = in;
-		if (!in.hasArray()) {
-			temp = ByteBufAllocator.DEFAULT.heapBuffer().writeBytes(in);
-		} else {
-			in.retain();
-		}
-		ByteBuf output = ByteBufAllocator.DEFAULT.heapBuffer(outLength, outLength);
+		// zlib can only read from and write into arrays, so the output always is a heap buffer
+		ByteBuf output = ctx.alloc().heapBuffer(outLength, outLength);
 		try {
-			this.inflater.setInput(temp.array(), temp.arrayOffset() + temp.readerIndex(), temp.readableBytes());
-			output.writerIndex(output.writerIndex() + this.inflater.inflate(output.array(), output.arrayOffset(), outLength));
+			if (in.hasArray()) {
+				this.inflater.setInput(in.array(), in.arrayOffset() + in.readerIndex(), in.readableBytes());
+				inflate(output);
+			} else {
+				// Direct buffers are passed to zlib in small pieces through a reused array instead of copying them as a whole
+				while (in.isReadable() && !this.inflater.finished()) {
+					final int length = Math.min(BUFFER_SIZE, in.readableBytes());
+					in.readBytes(this.buffer, 0, length);
+					this.inflater.setInput(this.buffer, 0, length);
+					inflate(output);
+				}
+			}
 			out.add(output.retain());
 		} finally {
 			output.release();
-			temp.release();
 			this.inflater.reset();
 		}
 	}
+
+	private void inflate(final ByteBuf output) throws DataFormatException {
+		while (!this.inflater.needsInput()) {
+			final int written = this.inflater.inflate(output.array(), output.arrayOffset() + output.writerIndex(), output.writableBytes());
+			if (written == 0) break; // finished or output full
+
+			output.writerIndex(output.writerIndex() + written);
+		}
+	}
 }
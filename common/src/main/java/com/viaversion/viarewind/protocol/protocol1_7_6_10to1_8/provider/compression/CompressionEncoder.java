@@ -19,7 +19,6 @@ package com.viaversion.viarewind.protocol.protocol1_7_6_10to1_8.provider.compres
 
 import com.viaversion.viaversion.api.type.Type;
 import io.netty.buffer.ByteBuf;
-import io.netty.buffer.ByteBufAllocator;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.handler.codec.MessageToByteEncoder;
 
@@ -27,11 +26,15 @@ import java.util.zip.Deflater;
 
 // https://github.com/Gerrygames/ClientViaVersion/blob/master/src/main/java/de/gerrygames/the5zig/clientviaversion/netty/CompressionEncoder.java
 public class CompressionEncoder extends MessageToByteEncoder<ByteBuf> {
+	private static final int BUFFER_SIZE = 8192;
+
 	private final Deflater deflater = new Deflater();
+	private final byte[] buffer = new byte[BUFFER_SIZE];
 
 	private final int threshold;
 
 	public CompressionEncoder(final int threshold) {
+		super(false); // zlib can only write into arrays, so let netty allocate heap buffers which can be written directly
 		this.threshold = threshold;
 	}
 
@@ -46,26 +49,33 @@ public class CompressionEncoder extends MessageToByteEncoder<ByteBuf> {
 
 		Type.VAR_INT.writePrimitive(out, frameLength);
 
-		ByteBuf temp = in;
-		if (!in.hasArray()) {
-			temp = ByteBufAllocator.DEFAULT.heapBuffer().writeBytes(in);
-		} else {
-			in.retain();
-		}
-		ByteBuf output = ByteBufAllocator.DEFAULT.heapBuffer();
 		try {
-			this.deflater.setInput(temp.array(), temp.arrayOffset() + temp.readerIndex(), temp.readableBytes());
-			deflater.finish();
+			if (in.hasArray()) {
+				this.deflater.setInput(in.array(), in.arrayOffset() + in.readerIndex(), frameLength);
+				in.skipBytes(frameLength);
+			} else {
+				// Direct buffers are passed to zlib in small pieces through a reused array instead of copying them as a whole
+				while (in.isReadable()) {
+					final int length = Math.min(BUFFER_SIZE, in.readableBytes());
+					in.readBytes(this.buffer, 0, length);
+					this.deflater.setInput(this.buffer, 0, length);
+					while (!this.deflater.needsInput()) {
+						deflate(out);
+					}
+				}
+			}
+			this.deflater.finish();
 
-			while (!deflater.finished()) {
-				output.ensureWritable(4096);
-				output.writerIndex(output.writerIndex() + this.deflater.deflate(output.array(), output.arrayOffset() + output.writerIndex(), output.writableBytes()));
+			while (!this.deflater.finished()) {
+				deflate(out);
 			}
-			out.writeBytes(output);
 		} finally {
-			output.release();
-			temp.release();
 			this.deflater.reset();
 		}
 	}
-}
\ No newline at end of file
+
+	private void deflate(final ByteBuf out) {
+		out.ensureWritable(BUFFER_SIZE);
+		out.writerIndex(out.writerIndex() + this.deflater.deflate(out.array(), out.arrayOffset() + out.writerIndex(), out.writableBytes()));
+	}
+}
@@ -18,7 +18,7 @@
 package com.viaversion.viarewind.protocol.protocol1_7_6_10to1_8.provider.compression;
 
 import com.viaversion.viarewind.api.netty.EmptyChannelHandler;
-import com.viaversion.viarewind.api.netty.ForwardMessageToByteEncoder;
+import com.viaversion.viarewind.api.netty.ForwardMessageToMessageEncoder;
 import com.viaversion.viarewind.protocol.protocol1_7_6_10to1_8.provider.CompressionHandlerProvider;
 import com.viaversion.viaversion.api.Via;
 import com.viaversion.viaversion.api.connection.UserConnection;
@@ -57,7 +57,7 @@ public class TrackingCompressionHandlerProvider extends CompressionHandlerProvid
 
 			if (compressor != null) { // We can neutralize the effect of compressor to the client
 				pipeline.replace(decompressor, decompressor, new EmptyChannelHandler());
-				pipeline.replace(compressor, compressor, new ForwardMessageToByteEncoder());
+				pipeline.replace(compressor, compressor, new ForwardMessageToMessageEncoder());
 			} else {
 				throw new IllegalStateException("Couldn't remove compression for 1.7!");
 			}
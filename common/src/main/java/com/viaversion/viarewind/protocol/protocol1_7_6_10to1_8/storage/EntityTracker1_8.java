@@ -18,6 +18,7 @@
 package com.viaversion.viarewind.protocol.protocol1_7_6_10to1_8.storage;
 
 import com.viaversion.viarewind.ViaRewind;
+import com.viaversion.viarewind.api.netty.FlushBatchHandler;
 import com.viaversion.viarewind.protocol.protocol1_7_2_5to1_7_6_10.ServerboundPackets1_7_2_5;
 import com.viaversion.viarewind.protocol.protocol1_7_6_10to1_8.Protocol1_7_6_10To1_8;
 import com.viaversion.viarewind.protocol.protocol1_7_6_10to1_8.emulation.VirtualHologramEntity;
@@ -27,37 +28,53 @@ import com.viaversion.viaversion.api.minecraft.entities.EntityTypes1_10;
 import com.viaversion.viaversion.api.protocol.packet.PacketWrapper;
 import com.viaversion.viaversion.api.type.Type;
 import com.viaversion.viaversion.data.entity.EntityTrackerBase;
-import com.viaversion.viaversion.libs.fastutil.ints.Int2IntArrayMap;
 import com.viaversion.viaversion.libs.fastutil.ints.Int2IntMap;
-import com.viaversion.viaversion.libs.fastutil.ints.Int2ObjectArrayMap;
+import com.viaversion.viaversion.libs.fastutil.ints.Int2IntOpenHashMap;
 import com.viaversion.viaversion.libs.fastutil.ints.Int2ObjectMap;
+import com.viaversion.viaversion.libs.fastutil.ints.Int2ObjectOpenHashMap;
+import com.viaversion.viaversion.libs.fastutil.longs.Long2ObjectMap;
+import com.viaversion.viaversion.libs.fastutil.longs.Long2ObjectOpenHashMap;
 import com.viaversion.viaversion.libs.fastutil.objects.Object2IntMap;
 import com.viaversion.viaversion.libs.fastutil.objects.Object2IntOpenHashMap;
 import com.viaversion.viaversion.protocols.protocol1_8.ClientboundPackets1_8;
 
-import java.util.Map;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
 import java.util.logging.Level;
 
 public class EntityTracker1_8 extends EntityTrackerBase {
 
-	private final Int2ObjectMap<VirtualHologramEntity> holograms = new Int2ObjectArrayMap<>();
-	private final Int2IntMap vehicles = new Int2IntArrayMap();
-	private final Int2ObjectMap<UUID> entityIdToUUID = new Int2ObjectArrayMap<>();
+	private final Int2ObjectMap<VirtualHologramEntity> holograms = new Int2ObjectOpenHashMap<>();
+	private final List<VirtualHologramEntity> dirtyHolograms = new ArrayList<>();
+	private final Long2ObjectMap<List<VirtualHologramEntity>> hologramCells = new Long2ObjectOpenHashMap<>(); // 16x16 column -> holograms
+	private final Int2IntMap vehicles = new Int2IntOpenHashMap(); // vehicle -> passenger
+	private final Int2IntMap passengers = new Int2IntOpenHashMap(); // passenger -> vehicle
+	private final Int2ObjectMap<UUID> entityIdToUUID = new Int2ObjectOpenHashMap<>();
 	private final Object2IntMap<UUID> entityUUIDToId = new Object2IntOpenHashMap<>();
 
+	private double traceDistance; // Distance of the hit found by the last traceHologram call
+
 	public int spectatingClientEntityId = -1;
 	private int clientEntityGameMode;
 
 	public EntityTracker1_8(UserConnection connection) {
 		super(connection, EntityTypes1_10.EntityType.ENTITY_HUMAN);
+		vehicles.defaultReturnValue(-1);
+		passengers.defaultReturnValue(-1);
 	}
 
 	@Override
 	public void addEntity(int id, EntityType type) {
 		super.addEntity(id, type);
 		if (type == EntityTypes1_10.EntityType.ARMOR_STAND) {
-			holograms.put(id, new VirtualHologramEntity(user(), id));
+			final VirtualHologramEntity hologram = new VirtualHologramEntity(user(), id);
+			final VirtualHologramEntity previous = holograms.put(id, hologram);
+			if (previous != null) {
+				// The id was reused without destroying the previous armor stand first
+				removeHologram(previous);
+			}
+			moveHologram(hologram, Long.MIN_VALUE, hologram.getCell());
 		}
 	}
 
@@ -65,18 +82,148 @@ public class EntityTracker1_8 extends EntityTrackerBase {
 	public void removeEntity(int entityId) {
 		super.removeEntity(entityId);
 
-		if (entityIdToUUID.containsKey(entityId)) {
-			final UUID playerId = entityIdToUUID.remove(entityId);
-
+		final UUID playerId = entityIdToUUID.remove(entityId);
+		if (playerId != null) {
 			entityUUIDToId.removeInt(playerId);
 			user().get(PlayerSessionStorage.class).getPlayerEquipment().remove(playerId);
 		}
+
+		final int passengerId = vehicles.remove(entityId);
+		if (passengerId != -1) {
+			passengers.remove(passengerId);
+		}
+		final int vehicleId = passengers.remove(entityId);
+		if (vehicleId != -1) {
+			vehicles.remove(vehicleId);
+		}
+
+		final VirtualHologramEntity hologram = holograms.remove(entityId);
+		if (hologram != null) {
+			removeHologram(hologram);
+		}
+	}
+
+	private void removeHologram(final VirtualHologramEntity hologram) {
+		moveHologram(hologram, hologram.getCell(), Long.MIN_VALUE);
+		try {
+			hologram.deleteEntity(); // Also removes the additional entities spawned for the hologram
+		} catch (Exception e) {
+			ViaRewind.getPlatform().getLogger().log(Level.SEVERE, "Failed to remove hologram", e);
+		}
 	}
 
 	@Override
 	public void clearEntities() {
 		super.clearEntities();
 		vehicles.clear();
+		passengers.clear();
+		holograms.clear();
+		dirtyHolograms.clear();
+		hologramCells.clear();
+	}
+
+	/**
+	 * Gets the grid cell of the given location, holograms are indexed by the 16x16 column they are in.
+	 *
+	 * @param x the x coordinate
+	 * @param z the z coordinate
+	 * @return the cell
+	 */
+	public static long getHologramCell(final double x, final double z) {
+		return getCellKey((int) Math.floor(x) >> 4, (int) Math.floor(z) >> 4);
+	}
+
+	private static long getCellKey(final int cellX, final int cellZ) {
+		return (long) cellX << 32 | cellZ & 0xFFFFFFFFL;
+	}
+
+	/**
+	 * Moves a hologram to another cell of the grid.
+	 *
+	 * @param hologram the hologram
+	 * @param from     the previous cell, or {@link Long#MIN_VALUE} if it isn't in the grid yet
+	 * @param to       the new cell, or {@link Long#MIN_VALUE} to remove it from the grid
+	 */
+	public void moveHologram(final VirtualHologramEntity hologram, final long from, final long to) {
+		if (from != Long.MIN_VALUE) {
+			final List<VirtualHologramEntity> cell = hologramCells.get(from);
+			if (cell != null && cell.remove(hologram) && cell.isEmpty()) {
+				hologramCells.remove(from);
+			}
+		}
+		if (to != Long.MIN_VALUE) {
+			hologramCells.computeIfAbsent(to, c -> new ArrayList<>()).add(hologram);
+		}
+	}
+
+	/**
+	 * Finds the nearest hologram hit by the given ray, only the cells along the ray are searched.
+	 *
+	 * @return the hologram, or null if the ray doesn't hit any hologram within the given distance
+	 * @see #getTraceDistance()
+	 */
+	public VirtualHologramEntity traceHologram(final double x, final double y, final double z, final double dirX, final double dirY, final double dirZ, final double distance) {
+		// Holograms are at most half a block wide, so they can only stick out of their cell by a quarter block
+		final double endX = x + dirX * distance;
+		final double endZ = z + dirZ * distance;
+		final int minCellX = (int) Math.floor(Math.min(x, endX) - 0.25) >> 4;
+		final int maxCellX = (int) Math.floor(Math.max(x, endX) + 0.25) >> 4;
+		final int minCellZ = (int) Math.floor(Math.min(z, endZ) - 0.25) >> 4;
+		final int maxCellZ = (int) Math.floor(Math.max(z, endZ) + 0.25) >> 4;
+
+		VirtualHologramEntity nearest = null;
+		double nearestDistance = Double.MAX_VALUE;
+		for (int cellX = minCellX; cellX <= maxCellX; cellX++) {
+			for (int cellZ = minCellZ; cellZ <= maxCellZ; cellZ++) {
+				final List<VirtualHologramEntity> cell = hologramCells.get(getCellKey(cellX, cellZ));
+				if (cell == null) {
+					continue;
+				}
+				for (VirtualHologramEntity hologram : cell) {
+					final double hit = hologram.trace(x, y, z, dirX, dirY, dirZ, distance);
+					if (hit < nearestDistance) { // Also false for NaN
+						nearest = hologram;
+						nearestDistance = hit;
+					}
+				}
+			}
+		}
+		traceDistance = nearestDistance;
+		return nearest;
+	}
+
+	/**
+	 * Gets the distance along the ray to the hologram found by the last {@link #traceHologram} call.
+	 *
+	 * @return the distance
+	 */
+	public double getTraceDistance() {
+		return traceDistance;
+	}
+
+	/**
+	 * Queues a location update for the given hologram. All queued updates are sent together once the packets which are
+	 * already waiting on the event loop have been handled, so a hologram moved several times only sends its final location.
+	 *
+	 * @param hologram the hologram
+	 */
+	public void markHologramDirty(final VirtualHologramEntity hologram) {
+		dirtyHolograms.add(hologram);
+		if (dirtyHolograms.size() == 1) {
+			FlushBatchHandler.schedule(user(), this::flushHolograms);
+		}
+	}
+
+	private void flushHolograms() {
+		final VirtualHologramEntity[] holograms = dirtyHolograms.toArray(new VirtualHologramEntity[0]);
+		dirtyHolograms.clear();
+		for (VirtualHologramEntity hologram : holograms) {
+			try {
+				hologram.flushLocation();
+			} catch (Exception e) {
+				ViaRewind.getPlatform().getLogger().log(Level.SEVERE, "Failed to update hologram location", e);
+			}
+		}
 	}
 
 	@Override
@@ -101,16 +248,11 @@ public class EntityTracker1_8 extends EntityTrackerBase {
 	}
 
 	public int getVehicle(final int passengerId) {
-		for (Map.Entry<Integer, Integer> vehicle : vehicles.entrySet()) {
-			if (vehicle.getValue() == passengerId) {
-				return vehicle.getValue();
-			}
-		}
-		return -1;
+		return passengers.get(passengerId);
 	}
 
 	public int getPassenger(int vehicleId) {
-		return vehicles.getOrDefault(vehicleId, -1);
+		return vehicles.get(vehicleId);
 	}
 
 	protected void startSneaking() {
@@ -133,11 +275,25 @@ public class EntityTracker1_8 extends EntityTrackerBase {
 		}
 
 		if (vehicleId == -1) {
-			vehicles.remove(getVehicle(passengerId));
+			final int oldVehicleId = passengers.remove(passengerId);
+			if (oldVehicleId != -1) {
+				vehicles.remove(oldVehicleId);
+			}
 		} else if (passengerId == -1) {
-			vehicles.remove(vehicleId);
+			final int oldPassengerId = vehicles.remove(vehicleId);
+			if (oldPassengerId != -1) {
+				passengers.remove(oldPassengerId);
+			}
 		} else {
-			vehicles.put(vehicleId, passengerId);
+			// 1.8 vehicles have a single passenger and a passenger can only ride one vehicle, so drop any previous links
+			final int oldPassengerId = vehicles.put(vehicleId, passengerId);
+			if (oldPassengerId != -1) {
+				passengers.remove(oldPassengerId);
+			}
+			final int oldVehicleId = passengers.put(passengerId, vehicleId);
+			if (oldVehicleId != -1 && oldVehicleId != vehicleId) {
+				vehicles.remove(oldVehicleId);
+			}
 		}
 	}
 
@@ -28,6 +28,7 @@ public class WorldBorderEmulator extends StoredObject {
 	private long lerpStartTime;
 
 	private boolean init = false;
+	private int version;
 
 	public WorldBorderEmulator(UserConnection user) {
 		super(user);
@@ -43,11 +44,13 @@ public class WorldBorderEmulator extends StoredObject {
 		this.lerpTime = lerpTime;
 
 		init = true;
+		version++;
 	}
 
 	public void setCenter(double x, double z) {
 		this.x = x;
 		this.z = z;
+		version++;
 	}
 
 	public void lerpSize(double oldDiameter, double newDiameter, long lerpTime) {
@@ -55,6 +58,7 @@ public class WorldBorderEmulator extends StoredObject {
 		this.newDiameter = newDiameter;
 		this.lerpTime = lerpTime;
 		this.lerpStartTime = System.currentTimeMillis();
+		version++;
 	}
 
 	public void setSize(double size) {
@@ -62,6 +66,7 @@ public class WorldBorderEmulator extends StoredObject {
 		this.newDiameter = size;
 
 		this.lerpTime = 0;
+		version++;
 	}
 
 	public double getSize() {
@@ -78,6 +83,23 @@ public class WorldBorderEmulator extends StoredObject {
 		return oldDiameter + (newDiameter - oldDiameter) * percent;
 	}
 
+	/**
+	 * Returns whether the size is still changing, the size only needs to be computed again while this is the case or the
+	 * version changed.
+	 *
+	 * @return true if the border is currently growing or shrinking
+	 */
+	public boolean isLerping() {
+		return lerpTime != 0 && System.currentTimeMillis() - lerpStartTime < lerpTime;
+	}
+
+	/**
+	 * @return a counter which is increased every time the center or size of the border has been changed
+	 */
+	public int getVersion() {
+		return version;
+	}
+
 	public double getX() {
 		return x;
 	}
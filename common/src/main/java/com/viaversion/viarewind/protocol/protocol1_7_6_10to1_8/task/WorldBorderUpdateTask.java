@@ -21,7 +21,7 @@ import com.viaversion.viarewind.ViaRewind;
 import com.viaversion.viarewind.protocol.protocol1_7_6_10to1_8.Protocol1_7_6_10To1_8;
 import com.viaversion.viarewind.protocol.protocol1_7_6_10to1_8.storage.PlayerSessionStorage;
 import com.viaversion.viarewind.protocol.protocol1_7_6_10to1_8.storage.WorldBorderEmulator;
-import com.viaversion.viaversion.api.Via;
+import com.viaversion.viarewind.task.ConnectionTask;
 import com.viaversion.viaversion.api.connection.UserConnection;
 import com.viaversion.viaversion.api.protocol.packet.PacketWrapper;
 import com.viaversion.viaversion.api.type.Type;
@@ -29,67 +29,121 @@ import com.viaversion.viaversion.protocols.protocol1_8.ClientboundPackets1_8;
 
 import java.util.logging.Level;
 
-public class WorldBorderUpdateTask implements Runnable {
+/**
+ * Emulates the world border for one connection by spawning particles on the sides of the border near the player. The
+ * border geometry is only computed again when it changed, players far away from the border only get a cheap distance
+ * check once they moved far enough to possibly see it, and standing players get particles at a lower rate.
+ */
+public class WorldBorderUpdateTask implements ConnectionTask {
 	public static final int VIEW_DISTANCE = 16;
+	public static final int STATIONARY_INTERVAL = 4; // Ticks between particles while neither the player nor the border moves
+
+	private final String particle = ViaRewind.getConfig().getWorldBorderParticle();
+
+	private WorldBorderEmulator emulator; // Replaced with a new instance when the player switches servers
+	private int version = -1;
+	private boolean lerping;
+	private double radius;
+	private double minX, maxX, minZ, maxZ;
+
+	private double lastX, lastY, lastZ;
+	private double farDistance; // How far the player can move from the last position before the border could be visible
+	private int stationaryTicks;
 
 	@Override
-	public void run() {
-		for (UserConnection connection : Via.getManager().getConnectionManager().getConnections()) {
-			final WorldBorderEmulator worldBorderEmulatorTracker = connection.get(WorldBorderEmulator.class);
-			if (!worldBorderEmulatorTracker.isInit()) continue;
-
-			final PlayerSessionStorage playerSession = connection.get(PlayerSessionStorage.class);
-
-			double radius = worldBorderEmulatorTracker.getSize() / 2.0;
-
-			for (WorldBorderEmulator.Side side : WorldBorderEmulator.Side.values()) {
-				double d;
-				double pos;
-				double center;
-				if (side.modX != 0) {
-					pos = playerSession.getPosZ();
-					center = worldBorderEmulatorTracker.getZ();
-					d = Math.abs(worldBorderEmulatorTracker.getX() + radius * side.modX - playerSession.getPosX());
-				} else {
-					center = worldBorderEmulatorTracker.getX();
-					pos = playerSession.getPosX();
-					d = Math.abs(worldBorderEmulatorTracker.getZ() + radius * side.modZ - playerSession.getPosZ());
-				}
-				if (d >= VIEW_DISTANCE) continue;
-
-				double r = Math.sqrt(VIEW_DISTANCE * VIEW_DISTANCE - d * d);
-
-				double minH = Math.ceil(pos - r);
-				double maxH = Math.floor(pos + r);
-				double minV = Math.ceil(playerSession.getPosY() - r);
-				double maxV = Math.floor(playerSession.getPosY() + r);
-
-				if (minH < center - radius) minH = Math.ceil(center - radius);
-				if (maxH > center + radius) maxH = Math.floor(center + radius);
-				if (minV < 0.0) minV = 0.0;
-
-				double centerH = (minH + maxH) / 2.0;
-				double centerV = (minV + maxV) / 2.0;
-
-				double particleOffset = 2.5;
-
-				final PacketWrapper spawnParticle = PacketWrapper.create(ClientboundPackets1_8.SPAWN_PARTICLE, connection);
-				spawnParticle.write(Type.STRING, ViaRewind.getConfig().getWorldBorderParticle()); // particle name
-				spawnParticle.write(Type.FLOAT, (float) (side.modX != 0 ? worldBorderEmulatorTracker.getX() + (radius * side.modX) : centerH)); // x
-				spawnParticle.write(Type.FLOAT, (float) centerV); // y
-				spawnParticle.write(Type.FLOAT, (float) (side.modX == 0 ? worldBorderEmulatorTracker.getZ() + (radius * side.modZ) : centerH)); // z
-				spawnParticle.write(Type.FLOAT, (float) (side.modX != 0 ? 0f : (maxH - minH) / particleOffset)); // offset x
-				spawnParticle.write(Type.FLOAT, (float) ((maxV - minV) / particleOffset)); // offset y
-				spawnParticle.write(Type.FLOAT, (float) (side.modX == 0 ? 0f : (maxH - minH) / particleOffset)); // offset z
-				spawnParticle.write(Type.FLOAT, 0F); // particle data
-				spawnParticle.write(Type.INT, (int) Math.floor((maxH - minH) * (maxV - minV) * 0.5));
-
-				try {
-					spawnParticle.send(Protocol1_7_6_10To1_8.class, true);
-				} catch (Exception e) {
-					ViaRewind.getPlatform().getLogger().log(Level.SEVERE, "Failed to send world border particle", e);
-				}
+	public boolean tick(UserConnection connection) {
+		final WorldBorderEmulator emulator = connection.get(WorldBorderEmulator.class);
+		final PlayerSessionStorage playerSession = connection.get(PlayerSessionStorage.class);
+		if (emulator == null || playerSession == null) return false; // The protocol has been removed from the pipeline
+		if (!emulator.isInit()) return true;
+
+		final double posX = playerSession.getPosX();
+		final double posY = playerSession.getPosY();
+		final double posZ = playerSession.getPosZ();
+
+		final boolean borderChanged = emulator != this.emulator || emulator.getVersion() != version || lerping;
+		if (borderChanged) {
+			updateGeometry(emulator);
+		} else if (farDistance > 0) {
+			if (Math.abs(posX - lastX) < farDistance && Math.abs(posZ - lastZ) < farDistance) return true;
+		} else if (posX == lastX && posY == lastY && posZ == lastZ && ++stationaryTicks < STATIONARY_INTERVAL) {
+			return true;
+		}
+		stationaryTicks = 0;
+		lastX = posX;
+		lastY = posY;
+		lastZ = posZ;
+
+		// Every side only depends on one axis, so moving less than this along both axes can't bring any side into view
+		final double distance = Math.min(Math.min(Math.abs(posX - minX), Math.abs(maxX - posX)), Math.min(Math.abs(posZ - minZ), Math.abs(maxZ - posZ)));
+		if (distance >= VIEW_DISTANCE) {
+			farDistance = distance - VIEW_DISTANCE;
+			return true;
+		}
+		farDistance = 0;
+
+		for (WorldBorderEmulator.Side side : WorldBorderEmulator.Side.values()) {
+			double d;
+			double pos;
+			double center;
+			if (side.modX != 0) {
+				pos = posZ;
+				center = emulator.getZ();
+				d = Math.abs(emulator.getX() + radius * side.modX - posX);
+			} else {
+				center = emulator.getX();
+				pos = posX;
+				d = Math.abs(emulator.getZ() + radius * side.modZ - posZ);
+			}
+			if (d >= VIEW_DISTANCE) continue;
+
+			double r = Math.sqrt(VIEW_DISTANCE * VIEW_DISTANCE - d * d);
+
+			double minH = Math.ceil(pos - r);
+			double maxH = Math.floor(pos + r);
+			double minV = Math.ceil(posY - r);
+			double maxV = Math.floor(posY + r);
+
+			if (minH < center - radius) minH = Math.ceil(center - radius);
+			if (maxH > center + radius) maxH = Math.floor(center + radius);
+			if (minV < 0.0) minV = 0.0;
+
+			double centerH = (minH + maxH) / 2.0;
+			double centerV = (minV + maxV) / 2.0;
+
+			double particleOffset = 2.5;
+
+			final PacketWrapper spawnParticle = PacketWrapper.create(ClientboundPackets1_8.SPAWN_PARTICLE, connection);
+			spawnParticle.write(Type.STRING, particle); // particle name
+			spawnParticle.write(Type.FLOAT, (float) (side.modX != 0 ? emulator.getX() + (radius * side.modX) : centerH)); // x
+			spawnParticle.write(Type.FLOAT, (float) centerV); // y
+			spawnParticle.write(Type.FLOAT, (float) (side.modX == 0 ? emulator.getZ() + (radius * side.modZ) : centerH)); // z
+			spawnParticle.write(Type.FLOAT, (float) (side.modX != 0 ? 0f : (maxH - minH) / particleOffset)); // offset x
+			spawnParticle.write(Type.FLOAT, (float) ((maxV - minV) / particleOffset)); // offset y
+			spawnParticle.write(Type.FLOAT, (float) (side.modX == 0 ? 0f : (maxH - minH) / particleOffset)); // offset z
+			spawnParticle.write(Type.FLOAT, 0F); // particle data
+			spawnParticle.write(Type.INT, (int) Math.floor((maxH - minH) * (maxV - minV) * 0.5));
+
+			try {
+				spawnParticle.send(Protocol1_7_6_10To1_8.class, true);
+			} catch (Exception e) {
+				ViaRewind.getPlatform().getLogger().log(Level.SEVERE, "Failed to send world border particle", e);
 			}
 		}
+		return true;
+	}
+
+	private void updateGeometry(final WorldBorderEmulator emulator) {
+		this.emulator = emulator;
+		version = emulator.getVersion();
+		// Computed once more after the lerp has finished, so the final size is used
+		lerping = emulator.isLerping();
+
+		radius = emulator.getSize() / 2.0;
+		minX = emulator.getX() - radius;
+		maxX = emulator.getX() + radius;
+		minZ = emulator.getZ() - radius;
+		maxZ = emulator.getZ() + radius;
+		farDistance = 0;
 	}
 }
@@ -18,15 +18,15 @@
 package com.viaversion.viarewind.protocol.protocol1_8to1_9;
 
 import com.viaversion.viabackwards.api.BackwardsProtocol;
+import com.viaversion.viarewind.ViaRewind;
+import com.viaversion.viarewind.api.ViaRewindConfig;
 import com.viaversion.viarewind.protocol.protocol1_8to1_9.data.RewindMappings;
 import com.viaversion.viarewind.protocol.protocol1_8to1_9.metadata.MetadataRewriter1_8To1_9;
 import com.viaversion.viarewind.protocol.protocol1_8to1_9.packets.*;
 import com.viaversion.viarewind.protocol.protocol1_8to1_9.storage.*;
 import com.viaversion.viarewind.protocol.protocol1_8to1_9.task.CooldownIndicatorTask;
-import com.viaversion.viarewind.protocol.protocol1_8to1_9.task.LevitationUpdateTask;
-import com.viaversion.viaversion.api.Via;
+import com.viaversion.viarewind.task.TickScheduler;
 import com.viaversion.viaversion.api.connection.UserConnection;
-import com.viaversion.viaversion.api.platform.providers.ViaProviders;
 import com.viaversion.viaversion.api.protocol.packet.PacketWrapper;
 import com.viaversion.viaversion.api.protocol.remapper.ValueTransformer;
 import com.viaversion.viaversion.api.type.Type;
@@ -36,8 +36,6 @@ import com.viaversion.viaversion.api.minecraft.ClientWorld;
 import com.viaversion.viaversion.protocols.protocol1_9to1_8.ClientboundPackets1_9;
 import com.viaversion.viaversion.protocols.protocol1_9to1_8.ServerboundPackets1_9;
 
-import java.util.concurrent.TimeUnit;
-
 public class Protocol1_8To1_9 extends BackwardsProtocol<ClientboundPackets1_9, ClientboundPackets1_8, ServerboundPackets1_9, ServerboundPackets1_8> {
 
 	public static final ValueTransformer<Double, Integer> DOUBLE_TO_INT_TIMES_32 = new ValueTransformer<Double, Integer>(Type.INT) {
@@ -83,17 +81,15 @@ public class Protocol1_8To1_9 extends BackwardsProtocol<ClientboundPackets1_9, C
 		connection.put(new BlockPlaceDestroyTracker());
 		connection.put(new BossBarStorage(connection));
 
+		if (ViaRewind.getConfig().getCooldownIndicator() != ViaRewindConfig.CooldownIndicator.DISABLED) {
+			TickScheduler.register(connection, new CooldownIndicatorTask());
+		}
+
 		if (!connection.has(ClientWorld.class)) {
 			connection.put(new ClientWorld());
 		}
 	}
 
-	@Override
-	public void register(ViaProviders providers) {
-		Via.getManager().getScheduler().scheduleRepeating(new LevitationUpdateTask(), 0L, 50L, TimeUnit.MILLISECONDS);
-		Via.getManager().getScheduler().scheduleRepeating(new CooldownIndicatorTask(), 0L, 50L, TimeUnit.MILLISECONDS);
-	}
-
 	@Override
 	public RewindMappings getMappingData() {
 		return MAPPINGS;
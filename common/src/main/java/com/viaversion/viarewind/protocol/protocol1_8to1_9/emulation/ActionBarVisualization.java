@@ -25,7 +25,11 @@ import com.viaversion.viaversion.libs.gson.JsonPrimitive;
 import com.viaversion.viaversion.protocols.protocol1_8.ClientboundPackets1_8;
 
 public class ActionBarVisualization implements CooldownVisualization {
+	private static final long REFRESH_INTERVAL = 1000L; // The client starts fading the action bar out after two seconds
+
 	private final UserConnection user;
+	private String lastText;
+	private long lastSendTime;
 
 	public ActionBarVisualization(UserConnection user) {
 		this.user = user;
@@ -33,7 +37,14 @@ public class ActionBarVisualization implements CooldownVisualization {
 
 	@Override
 	public void show(double progress) throws Exception {
-		sendActionBar(CooldownVisualization.buildProgressText("■", progress));
+		final String text = CooldownVisualization.buildProgressText("■", progress);
+		final long now = System.currentTimeMillis();
+		if (text.equals(lastText) && now - lastSendTime < REFRESH_INTERVAL) {
+			return;
+		}
+		sendActionBar(text);
+		lastText = text;
+		lastSendTime = now;
 	}
 
 	@Override
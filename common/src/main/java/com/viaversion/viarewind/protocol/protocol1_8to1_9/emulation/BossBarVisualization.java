@@ -26,8 +26,11 @@ import com.viaversion.viaversion.protocols.protocol1_9to1_8.ClientboundPackets1_
 import java.util.UUID;
 
 public class BossBarVisualization implements CooldownVisualization {
+	private static final int BAR_WIDTH = 182; // Width of the boss bar in pixels
+
 	private final UserConnection user;
 	private UUID bossUUID;
+	private int lastWidth = -1;
 
 	public BossBarVisualization(UserConnection user) {
 		this.user = user;
@@ -35,6 +38,13 @@ public class BossBarVisualization implements CooldownVisualization {
 
 	@Override
 	public void show(double progress) throws Exception {
+		// Only update the health once it changes the rendered bar
+		final int width = (int) (progress * BAR_WIDTH);
+		if (width == lastWidth) {
+			return;
+		}
+		lastWidth = width;
+
 		PacketWrapper wrapper = PacketWrapper.create(ClientboundPackets1_9.BOSSBAR, user);
 		if (bossUUID == null) {
 			bossUUID = UUID.randomUUID();
@@ -63,5 +73,6 @@ public class BossBarVisualization implements CooldownVisualization {
 		wrapper.write(Type.VAR_INT, 1); // Action - remove
 		wrapper.scheduleSend(Protocol1_8To1_9.class, false);
 		bossUUID = null;
+		lastWidth = -1;
 	}
 }
@@ -26,7 +26,13 @@ import com.viaversion.viaversion.protocols.protocol1_8.ClientboundPackets1_8;
 import java.util.function.Consumer;
 
 public class TitleCooldownVisualization implements CooldownVisualization {
+	private static final int STAY_TICKS = 20;
+	private static final int FADE_OUT_TICKS = 5;
+	private static final long REFRESH_INTERVAL = STAY_TICKS * 50L / 2; // Re-send the title before it starts fading out
+
 	private final UserConnection user;
+	private String lastText;
+	private long lastTitleTime;
 
 	public TitleCooldownVisualization(UserConnection user) {
 		this.user = user;
@@ -34,8 +40,22 @@ public class TitleCooldownVisualization implements CooldownVisualization {
 
 	@Override
 	public void show(double progress) throws Exception {
+		if (lastText == null) {
+			sendTimes(0, STAY_TICKS, FADE_OUT_TICKS);
+		}
+
+		// The subtitle doesn't restart the display timer, so it can be updated alone when only the progress changed
 		String text = CooldownVisualization.buildProgressText("˙", progress);
-		sendTitle("", text, 0, 2, 5);
+		if (!text.equals(lastText)) {
+			sendTitlePacket(ACTION_SET_SUBTITLE, packet -> packet.write(Type.COMPONENT, new JsonPrimitive(text)));
+			lastText = text;
+		}
+
+		final long now = System.currentTimeMillis();
+		if (now - lastTitleTime >= REFRESH_INTERVAL) {
+			sendTitlePacket(ACTION_SET_TITLE, packet -> packet.write(Type.COMPONENT, new JsonPrimitive("")));
+			lastTitleTime = now;
+		}
 	}
 
 	@Override
@@ -48,15 +68,7 @@ public class TitleCooldownVisualization implements CooldownVisualization {
 	private static final int ACTION_SET_TIMES_AND_DISPLAY = 2;
 	private static final int ACTION_HIDE = 3;
 
-	private void sendTitle(String titleText, String subTitleText, int fadeIn, int stay, int fadeOut) throws Exception {
-		sendTitlePacket(
-			ACTION_SET_TITLE,
-			packet -> packet.write(Type.COMPONENT, new JsonPrimitive(titleText))
-		);
-		sendTitlePacket(
-			ACTION_SET_SUBTITLE,
-			packet -> packet.write(Type.COMPONENT, new JsonPrimitive(subTitleText))
-		);
+	private void sendTimes(int fadeIn, int stay, int fadeOut) throws Exception {
 		sendTitlePacket(
 			ACTION_SET_TIMES_AND_DISPLAY,
 			packet -> {
@@ -18,6 +18,7 @@
 package com.viaversion.viarewind.protocol.protocol1_8to1_9.emulation;
 
 import com.viaversion.viarewind.ViaRewind;
+import com.viaversion.viarewind.api.netty.FlushBatchHandler;
 import com.viaversion.viarewind.protocol.protocol1_8to1_9.Protocol1_8To1_9;
 import com.viaversion.viaversion.api.connection.UserConnection;
 import com.viaversion.viaversion.api.legacy.bossbar.BossBar;
@@ -222,7 +223,7 @@ public class WitherBossBar implements BossBar {
 
 		wrapper.write(Types1_8.METADATA_LIST, metadata);
 
-		wrapper.scheduleSend(Protocol1_8To1_9.class);
+		send(wrapper);
 	}
 
 	private void updateLocation() throws Exception {
@@ -235,7 +236,7 @@ public class WitherBossBar implements BossBar {
 		wrapper.write(Type.BYTE, (byte) 0);
 		wrapper.write(Type.BOOLEAN, false);
 
-		wrapper.scheduleSend(Protocol1_8To1_9.class);
+		send(wrapper);
 	}
 
 	private void updateMetadata() throws Exception {
@@ -248,14 +249,19 @@ public class WitherBossBar implements BossBar {
 
 		wrapper.write(Types1_8.METADATA_LIST, metadata);
 
-		wrapper.scheduleSend(Protocol1_8To1_9.class);
+		send(wrapper);
 	}
 
 	private void despawnWither() throws Exception {
 		PacketWrapper wrapper = PacketWrapper.create(0x13, null, this.connection);
 		wrapper.write(Type.VAR_INT_ARRAY_PRIMITIVE, new int[]{entityId});
 
-		wrapper.scheduleSend(Protocol1_8To1_9.class);
+		send(wrapper);
+	}
+
+	private void send(final PacketWrapper wrapper) {
+		// Packets scheduled one after another share a single flush
+		FlushBatchHandler.schedule(connection, () -> wrapper.send(Protocol1_8To1_9.class));
 	}
 
 	public void setPlayerLocation(double posX, double posY, double posZ, float yaw, float pitch) throws Exception {
@@ -20,39 +20,46 @@ package com.viaversion.viarewind.protocol.protocol1_8to1_9.metadata;
 import com.viaversion.viaversion.api.minecraft.entities.EntityType;
 import com.viaversion.viaversion.api.minecraft.entities.EntityTypes1_10;
 import com.viaversion.viaversion.protocols.protocol1_9to1_8.metadata.MetaIndex;
-import com.viaversion.viaversion.util.Pair;
 
-import java.util.HashMap;
-import java.util.Optional;
+import java.util.ArrayList;
+import java.util.List;
 
 public class MetaIndex1_8to1_9 {
 
-	private static final HashMap<Pair<EntityTypes1_10.EntityType, Integer>, MetaIndex> metadataRewrites = new HashMap<>();
+	// Entity type ordinal -> metadata index -> rewrite, with the entries of all parent types already resolved
+	private static final MetaIndex[][] metadataRewrites;
 
 	static {
+		int maxIndex = 0;
 		for (MetaIndex index : MetaIndex.values()) {
-			metadataRewrites.put(new Pair<>(index.getClazz(), index.getNewIndex()), index);
+			maxIndex = Math.max(maxIndex, index.getNewIndex());
 		}
-	}
 
-	private static Optional<MetaIndex> getIndex(final EntityType type, final int index) {
-		final Pair<EntityType, Integer> pair = new Pair<>(type, index);
-		if (metadataRewrites.containsKey(pair)) {
-			return Optional.of(metadataRewrites.get(pair));
-		} else {
-			return Optional.empty();
+		final EntityTypes1_10.EntityType[] types = EntityTypes1_10.EntityType.values();
+		metadataRewrites = new MetaIndex[types.length][maxIndex + 1];
+		for (EntityTypes1_10.EntityType type : types) {
+			final List<EntityType> hierarchy = new ArrayList<>();
+			for (EntityType current = type; current != null; current = current.getParent()) {
+				hierarchy.add(current);
+			}
+
+			// Start at the root, so entries of a type override the ones of its parents
+			final MetaIndex[] rewrites = metadataRewrites[type.ordinal()];
+			for (int i = hierarchy.size() - 1; i >= 0; i--) {
+				for (MetaIndex index : MetaIndex.values()) {
+					if (index.getClazz() == hierarchy.get(i) && index.getNewIndex() >= 0) {
+						rewrites[index.getNewIndex()] = index;
+					}
+				}
+			}
 		}
 	}
 
 	public static MetaIndex searchIndex(final EntityType type, final int index) {
-		EntityType currentType = type;
-		do {
-			final Optional<MetaIndex> optMeta = getIndex(currentType, index);
-			if (optMeta.isPresent()) {
-				return optMeta.get();
-			}
-			currentType = currentType.getParent();
-		} while (currentType != null);
-		return null;
+		if (!(type instanceof EntityTypes1_10.EntityType) || index < 0) {
+			return null;
+		}
+		final MetaIndex[] rewrites = metadataRewrites[((EntityTypes1_10.EntityType) type).ordinal()];
+		return index < rewrites.length ? rewrites[index] : null;
 	}
 }
@@ -21,6 +21,8 @@ import com.viaversion.viarewind.protocol.protocol1_8to1_9.Protocol1_8To1_9;
 import com.viaversion.viarewind.protocol.protocol1_8to1_9.storage.CooldownStorage;
 import com.viaversion.viarewind.protocol.protocol1_8to1_9.storage.EntityTracker1_9;
 import com.viaversion.viarewind.protocol.protocol1_8to1_9.storage.LevitationStorage;
+import com.viaversion.viarewind.protocol.protocol1_8to1_9.task.LevitationUpdateTask;
+import com.viaversion.viarewind.task.TickScheduler;
 import com.viaversion.viarewind.protocol.protocol1_8to1_9.storage.PlayerPositionTracker;
 import com.viaversion.viarewind.utils.math.RelativeMoveUtil;
 import com.viaversion.viaversion.api.minecraft.Vector;
@@ -327,6 +329,7 @@ public class EntityPackets1_9 {
 				final LevitationStorage levitation = wrapper.user().get(LevitationStorage.class);
 				levitation.setActive(true);
 				levitation.setAmplifier(amplifier);
+				TickScheduler.register(wrapper.user(), new LevitationUpdateTask());
 			}
 		});
 	}
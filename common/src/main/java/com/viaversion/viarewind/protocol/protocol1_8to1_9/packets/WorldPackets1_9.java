@@ -18,6 +18,7 @@
 package com.viaversion.viarewind.protocol.protocol1_8to1_9.packets;
 
 import com.viaversion.viarewind.ViaRewind;
+import com.viaversion.viarewind.protocol.protocol1_7_6_10to1_8.Protocol1_7_6_10To1_8;
 import com.viaversion.viarewind.protocol.protocol1_8to1_9.Protocol1_8To1_9;
 import com.viaversion.viarewind.protocol.protocol1_8to1_9.data.EffectMappings;
 import com.viaversion.viaversion.api.connection.UserConnection;
@@ -125,13 +126,16 @@ public class WorldPackets1_9 {
 
 					Chunk chunk = wrapper.read(ChunkType1_9_1.forEnvironment(environment));
 
-					for (ChunkSection section : chunk.getSections()) {
-						if (section == null) continue;
-						DataPalette palette = section.palette(PaletteType.BLOCKS);
-						for (int i = 0; i < palette.size(); i++) {
-							int block = palette.idByIndex(i);
-							int replacedBlock = protocol.getItemRewriter().handleBlockId(block);
-							palette.setIdByIndex(i, replacedBlock);
+					// 1.7 clients get both block remappings in one pass from the 1.8->1.7 protocol
+					if (!wrapper.user().getProtocolInfo().getPipeline().contains(Protocol1_7_6_10To1_8.class)) {
+						for (ChunkSection section : chunk.getSections()) {
+							if (section == null) continue;
+							DataPalette palette = section.palette(PaletteType.BLOCKS);
+							for (int i = 0; i < palette.size(); i++) {
+								int block = palette.idByIndex(i);
+								int replacedBlock = protocol.getItemRewriter().handleBlockId(block);
+								palette.setIdByIndex(i, replacedBlock);
+							}
 						}
 					}
 
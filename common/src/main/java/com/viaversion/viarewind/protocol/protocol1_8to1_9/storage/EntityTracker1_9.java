@@ -23,30 +23,53 @@ import com.viaversion.viaversion.api.minecraft.entities.EntityTypes1_10;
 import com.viaversion.viaversion.data.entity.EntityTrackerBase;
 import com.viaversion.viaversion.libs.fastutil.ints.*;
 
-import java.util.List;
-import java.util.Map;
-
 public class EntityTracker1_9 extends EntityTrackerBase {
 
-	private final Int2ObjectMap<IntList> vehicles = new Int2ObjectOpenHashMap<>();
+	private final Int2ObjectMap<IntList> vehicles = new Int2ObjectOpenHashMap<>(); // vehicle -> passengers
+	private final Int2IntMap passengerVehicles = new Int2IntOpenHashMap(); // passenger -> vehicle
 	private final Int2ObjectMap<Vector> offsets = new Int2ObjectOpenHashMap<>();
 	private final Int2IntMap status = new Int2IntOpenHashMap();
 
 	public EntityTracker1_9(UserConnection connection) {
 		super(connection, EntityTypes1_10.EntityType.ENTITY_HUMAN);
+		passengerVehicles.defaultReturnValue(-1);
 	}
 
 	@Override
 	public void removeEntity(int id) {
-		vehicles.remove(id);
 		offsets.remove(id);
 		status.remove(id);
 
-		vehicles.forEach((vehicle, passengers) -> passengers.rem(id));
-		vehicles.int2ObjectEntrySet().removeIf(entry -> entry.getValue().isEmpty());
+		final IntList passengers = vehicles.remove(id);
+		if (passengers != null) {
+			for (int i = 0; i < passengers.size(); i++) {
+				passengerVehicles.remove(passengers.getInt(i));
+			}
+		}
+		removeFromVehicle(id);
 		super.removeEntity(id);
 	}
 
+	@Override
+	public void clearEntities() {
+		super.clearEntities();
+		vehicles.clear();
+		passengerVehicles.clear();
+	}
+
+	private void removeFromVehicle(final int passenger) {
+		final int vehicle = passengerVehicles.remove(passenger);
+		if (vehicle == -1) return;
+
+		final IntList passengers = vehicles.get(vehicle);
+		if (passengers != null) {
+			passengers.rem(passenger);
+			if (passengers.isEmpty()) {
+				vehicles.remove(vehicle);
+			}
+		}
+	}
+
 	public void resetEntityOffset(final int id) {
 		offsets.remove(id);
 	}
@@ -60,25 +83,33 @@ public class EntityTracker1_9 extends EntityTrackerBase {
 	}
 
 	public IntList getPassengers(final int id) {
-		return vehicles.getOrDefault(id, new IntArrayList());
+		return vehicles.getOrDefault(id, IntLists.EMPTY_LIST);
 	}
 
 	public void setPassengers(final int id, final IntList passengers) {
+		final IntList oldPassengers = vehicles.remove(id);
+		if (oldPassengers != null) {
+			for (int i = 0; i < oldPassengers.size(); i++) {
+				passengerVehicles.remove(oldPassengers.getInt(i));
+			}
+		}
+		if (passengers.isEmpty()) return;
+
+		// An entity can only ride one vehicle, so it's removed from its previous one
+		for (int i = 0; i < passengers.size(); i++) {
+			final int passenger = passengers.getInt(i);
+			removeFromVehicle(passenger);
+			passengerVehicles.put(passenger, id);
+		}
 		vehicles.put(id, passengers);
 	}
 
 	public boolean isInsideVehicle(final int id) {
-		for (List<Integer> vehicle : vehicles.values()) {
-			if (vehicle.contains(id)) return true;
-		}
-		return false;
+		return passengerVehicles.containsKey(id);
 	}
 
 	public int getVehicle(final int passenger) {
-		for (Map.Entry<Integer, IntList> vehicle : vehicles.int2ObjectEntrySet()) {
-			if (vehicle.getValue().contains(passenger)) return vehicle.getKey();
-		}
-		return -1;
+		return passengerVehicles.get(passenger);
 	}
 
 	public Int2IntMap getStatus() {
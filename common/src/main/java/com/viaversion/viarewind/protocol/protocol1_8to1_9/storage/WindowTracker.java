@@ -17,6 +17,7 @@
  */
 package com.viaversion.viarewind.protocol.protocol1_8to1_9.storage;
 
+import com.viaversion.viarewind.api.netty.FlushBatchHandler;
 import com.viaversion.viarewind.protocol.protocol1_8to1_9.Protocol1_8To1_9;
 import com.viaversion.viaversion.api.connection.StoredObject;
 import com.viaversion.viaversion.api.connection.UserConnection;
@@ -98,15 +99,23 @@ public class WindowTracker extends StoredObject {
 
 		openWindow.write(Type.COMPONENT, TextComponentSerializer.V1_8.serializeJson(title));
 		openWindow.write(Type.UNSIGNED_BYTE, (short) 420);
-		openWindow.scheduleSend(Protocol1_8To1_9.class);
 
 		Item[] items = user.get(WindowTracker.class).getBrewingItems(windowId);
+		PacketWrapper[] setSlots = new PacketWrapper[items.length];
 		for (int i = 0; i < items.length; i++) {
 			PacketWrapper setSlot = PacketWrapper.create(ClientboundPackets1_8.SET_SLOT, user);
 			setSlot.write(Type.UNSIGNED_BYTE, windowId);
 			setSlot.write(Type.SHORT, (short) i);
 			setSlot.write(Type.ITEM1_8, items[i]);
-			setSlot.scheduleSend(Protocol1_8To1_9.class);
+			setSlots[i] = setSlot;
 		}
+
+		// Sent after the current packet, the window and all of its slots with a single flush
+		FlushBatchHandler.schedule(user, () -> {
+			openWindow.send(Protocol1_8To1_9.class);
+			for (PacketWrapper setSlot : setSlots) {
+				setSlot.send(Protocol1_8To1_9.class);
+			}
+		});
 	}
 }
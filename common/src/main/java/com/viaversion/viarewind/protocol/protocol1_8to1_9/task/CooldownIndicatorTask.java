@@ -18,15 +18,19 @@
 package com.viaversion.viarewind.protocol.protocol1_8to1_9.task;
 
 import com.viaversion.viarewind.protocol.protocol1_8to1_9.storage.CooldownStorage;
-import com.viaversion.viaversion.api.Via;
+import com.viaversion.viarewind.task.ConnectionTask;
 import com.viaversion.viaversion.api.connection.UserConnection;
 
-public class CooldownIndicatorTask implements Runnable {
+public class CooldownIndicatorTask implements ConnectionTask {
 
 	@Override
-	public void run() {
-		for (UserConnection connection : Via.getManager().getConnectionManager().getConnections()) {
-			connection.get(CooldownStorage.class).tick(connection);
+	public boolean tick(UserConnection connection) {
+		final CooldownStorage cooldown = connection.get(CooldownStorage.class);
+		if (cooldown == null) {
+			return false; // The protocol has been removed from the pipeline
 		}
+
+		cooldown.tick(connection);
+		return true;
 	}
 }
@@ -15,16 +15,21 @@
  * You should have received a copy of the GNU General Public License
  * along with this program.  If not, see <http://www.gnu.org/licenses/>.
  */
-package com.viaversion.viarewind.api.netty;
+package com.viaversion.viarewind.task;
 
-import io.netty.buffer.ByteBuf;
-import io.netty.channel.ChannelHandlerContext;
-import io.netty.handler.codec.MessageToByteEncoder;
+import com.viaversion.viaversion.api.connection.UserConnection;
 
-public class ForwardMessageToByteEncoder extends MessageToByteEncoder<ByteBuf> {
+/**
+ * Emulation work which is run every tick for the connections it has been registered for, see {@link TickScheduler}.
+ */
+@FunctionalInterface
+public interface ConnectionTask {
 
-	@Override
-	protected void encode(ChannelHandlerContext ctx, ByteBuf msg, ByteBuf out) {
-		out.writeBytes(msg);
-	}
+	/**
+	 * Runs the task for the given connection.
+	 *
+	 * @param connection the connection
+	 * @return false if the task doesn't need to run for this connection anymore
+	 */
+	boolean tick(UserConnection connection);
 }
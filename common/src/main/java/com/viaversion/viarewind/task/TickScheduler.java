@@ -0,0 +1,166 @@
+/*
+ * This file is part of ViaRewind - https://github.com/ViaVersion/ViaRewind
+ * Copyright (C) 2018-2024 ViaVersion and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.viaversion.viarewind.task;
+
+import com.viaversion.viarewind.ViaRewind;
+import com.viaversion.viaversion.api.connection.UserConnection;
+import io.netty.channel.Channel;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+
+/**
+ * Runs the emulation tasks of all connections every 50 ms. Only connections which registered a task are visited, and all
+ * tasks of a connection are run together. If enabled in the config, every connection is ticked on its own event loop
+ * instead, which spreads the work over all network threads and avoids racing with the packet handlers.
+ */
+public class TickScheduler implements Runnable {
+
+	public static final long TICK_INTERVAL = 50L;
+
+	private static final Map<UserConnection, ConnectionTicks> CONNECTIONS = new ConcurrentHashMap<>();
+
+	private static final LongAdder TICKS = new LongAdder();
+	private static final LongAdder CONNECTION_TICKS = new LongAdder();
+	private static final LongAdder NANOS = new LongAdder();
+
+	/**
+	 * Registers a task to run every tick for the given connection, replacing a task of the same class which is already
+	 * registered for it, so state kept by the previous task doesn't outlive a reset of the protocol storages. The task is
+	 * removed once it returns false or the connection has been closed.
+	 *
+	 * @param connection the connection
+	 * @param task       the task
+	 */
+	public static void register(final UserConnection connection, final ConnectionTask task) {
+		CONNECTIONS.compute(connection, (c, ticks) -> {
+			if (ticks == null) {
+				ticks = new ConnectionTicks(connection);
+			}
+			ticks.tasks.put(task.getClass(), task);
+			return ticks;
+		});
+	}
+
+	@Override
+	public void run() {
+		final long start = System.nanoTime();
+		int connections = 0;
+
+		for (ConnectionTicks ticks : CONNECTIONS.values()) {
+			if (ticks.future != null) continue; // Ticked on its event loop
+
+			if (ticks.isClosed()) {
+				ticks.unregister(true);
+				continue;
+			}
+			ticks.tick();
+			connections++;
+		}
+
+		TICKS.increment();
+		CONNECTION_TICKS.add(connections);
+		NANOS.add(System.nanoTime() - start);
+	}
+
+	/**
+	 * Builds a summary of the emulation ticks since the last call and resets the counters.
+	 *
+	 * @return the summary, or null if nothing has been ticked
+	 */
+	public static String reportMetrics() {
+		final long ticks = TICKS.sumThenReset();
+		final long connectionTicks = CONNECTION_TICKS.sumThenReset();
+		final long nanos = NANOS.sumThenReset();
+		if (ticks == 0 || connectionTicks == 0) {
+			return null;
+		}
+		return String.format("Emulation ticks: %d ticks, %d connections per tick, %d ns per tick, %d ns per connection",
+			ticks, connectionTicks / ticks, nanos / ticks, nanos / connectionTicks);
+	}
+
+	private static class ConnectionTicks {
+
+		private final UserConnection connection;
+		private final Map<Class<?>, ConnectionTask> tasks = new ConcurrentHashMap<>();
+		private final ScheduledFuture<?> future;
+
+		public ConnectionTicks(final UserConnection connection) {
+			this.connection = connection;
+
+			final Channel channel = connection.getChannel();
+			if (channel != null && ViaRewind.getConfig().isTickOnEventLoop()) {
+				future = channel.eventLoop().scheduleAtFixedRate(this::tickOnEventLoop, TICK_INTERVAL, TICK_INTERVAL, TimeUnit.MILLISECONDS);
+			} else {
+				future = null;
+			}
+		}
+
+		private void tickOnEventLoop() {
+			if (isClosed()) {
+				unregister(true);
+				return;
+			}
+
+			final long start = System.nanoTime();
+			tick();
+			CONNECTION_TICKS.increment();
+			NANOS.add(System.nanoTime() - start);
+		}
+
+		public void tick() {
+			final Iterator<ConnectionTask> iterator = tasks.values().iterator();
+			while (iterator.hasNext()) {
+				final ConnectionTask task = iterator.next();
+				try {
+					if (!task.tick(connection)) {
+						iterator.remove();
+					}
+				} catch (Exception e) {
+					ViaRewind.getPlatform().getLogger().log(Level.SEVERE, "Failed to run " + task.getClass().getSimpleName(), e);
+				}
+			}
+			if (tasks.isEmpty()) {
+				unregister(false);
+			}
+		}
+
+		public boolean isClosed() {
+			final Channel channel = connection.getChannel();
+			return channel != null && !channel.isOpen();
+		}
+
+		public void unregister(final boolean closed) {
+			// Atomic with registering, so a task registered in the meantime can't get lost
+			CONNECTIONS.computeIfPresent(connection, (c, ticks) -> {
+				if (ticks != this || !closed && !tasks.isEmpty()) {
+					return ticks;
+				}
+				if (future != null) {
+					future.cancel(false);
+				}
+				return null;
+			});
+		}
+	}
+}
@@ -0,0 +1,130 @@
+/*
+ * This file is part of ViaRewind - https://github.com/ViaVersion/ViaRewind
+ * Copyright (C) 2018-2024 ViaVersion and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.viaversion.viarewind.utils;
+
+import io.netty.buffer.ByteBuf;
+
+import java.util.zip.Deflater;
+
+/**
+ * Reuses {@link Deflater} instances instead of allocating new native zlib state for every packet. The deflaters are
+ * bound to the calling thread, since every netty event loop runs on its own thread this is a pool per event loop.
+ */
+public class DeflaterPool {
+
+	private static final int BUFFER_SIZE = 8192;
+
+	private static final ThreadLocal<PooledDeflater> DEFLATERS = ThreadLocal.withInitial(() -> new PooledDeflater(false));
+	private static final ThreadLocal<PooledDeflater> RAW_DEFLATERS = ThreadLocal.withInitial(() -> new PooledDeflater(true));
+
+	/**
+	 * Compresses the given data as one zlib stream and writes it directly into the output buffer.
+	 *
+	 * @param input    the uncompressed data
+	 * @param offset   the offset of the data in the input array
+	 * @param length   the length of the data
+	 * @param output   the buffer to write the compressed data into
+	 * @param level    the compression level, see {@link Deflater#setLevel(int)}
+	 * @param strategy the compression strategy, see {@link Deflater#setStrategy(int)}
+	 * @return the amount of compressed bytes written into the output buffer
+	 */
+	public static int deflate(final byte[] input, final int offset, final int length, final ByteBuf output, final int level, final int strategy) {
+		return deflate(DEFLATERS.get(), input, offset, length, output, level, strategy, true);
+	}
+
+	/**
+	 * Compresses the given data as a raw deflate stream without zlib header and checksum. Streams which aren't the last
+	 * one end on a byte aligned sync flush block instead of a final block, so multiple of them can be concatenated and
+	 * wrapped into one zlib stream.
+	 *
+	 * @param input    the uncompressed data
+	 * @param offset   the offset of the data in the input array
+	 * @param length   the length of the data
+	 * @param output   the buffer to write the compressed data into
+	 * @param level    the compression level, see {@link Deflater#setLevel(int)}
+	 * @param strategy the compression strategy, see {@link Deflater#setStrategy(int)}
+	 * @param last     whether this is the last part of the stream
+	 * @return the amount of compressed bytes written into the output buffer
+	 */
+	public static int deflateRaw(final byte[] input, final int offset, final int length, final ByteBuf output, final int level, final int strategy, final boolean last) {
+		return deflate(RAW_DEFLATERS.get(), input, offset, length, output, level, strategy, last);
+	}
+
+	private static int deflate(final PooledDeflater pooled, final byte[] input, final int offset, final int length, final ByteBuf output, final int level, final int strategy, final boolean finish) {
+		final Deflater deflater = pooled.prepare(level, strategy);
+		final int flush = finish ? Deflater.NO_FLUSH : Deflater.SYNC_FLUSH;
+
+		final int startIndex = output.writerIndex();
+		try {
+			deflater.setInput(input, offset, length);
+			if (finish) {
+				deflater.finish();
+			}
+
+			while (true) {
+				final int available;
+				final int written;
+				if (output.hasArray()) {
+					output.ensureWritable(BUFFER_SIZE);
+					available = output.writableBytes();
+					written = deflater.deflate(output.array(), output.arrayOffset() + output.writerIndex(), available, flush);
+					output.writerIndex(output.writerIndex() + written);
+				} else {
+					available = pooled.buffer.length;
+					written = deflater.deflate(pooled.buffer, 0, available, flush);
+					output.writeBytes(pooled.buffer, 0, written);
+				}
+
+				// A sync flush is complete once all input is consumed and zlib doesn't fill up the whole output space anymore,
+				// the first call after changing the level might return early without having consumed all input
+				if (finish ? deflater.finished() : written < available && deflater.needsInput()) {
+					break;
+				}
+			}
+		} finally {
+			deflater.reset();
+		}
+		return output.writerIndex() - startIndex;
+	}
+
+	private static class PooledDeflater {
+
+		private final Deflater deflater;
+		private final byte[] buffer = new byte[BUFFER_SIZE];
+
+		private int level = Deflater.DEFAULT_COMPRESSION;
+		private int strategy = Deflater.DEFAULT_STRATEGY;
+
+		public PooledDeflater(final boolean nowrap) {
+			this.deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, nowrap);
+		}
+
+		public Deflater prepare(final int level, final int strategy) {
+			// Changed parameters are applied by zlib on the next deflate call, so only set them when they actually differ
+			if (this.level != level) {
+				deflater.setLevel(level);
+				this.level = level;
+			}
+			if (this.strategy != strategy) {
+				deflater.setStrategy(strategy);
+				this.strategy = strategy;
+			}
+			return deflater;
+		}
+	}
+}
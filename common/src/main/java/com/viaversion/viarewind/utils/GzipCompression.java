@@ -0,0 +1,216 @@
+/*
+ * This file is part of ViaRewind - https://github.com/ViaVersion/ViaRewind
+ * Copyright (C) 2018-2024 ViaVersion and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.viaversion.viarewind.utils;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+
+import java.io.IOException;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+import java.util.zip.ZipException;
+
+/**
+ * Writes and reads gzip streams with zlib state which is reused by the calling thread, see {@link DeflaterPool}. Using
+ * {@link java.util.zip.GZIPOutputStream} and {@link java.util.zip.GZIPInputStream} instead allocates new native zlib
+ * state, a checksum and buffers for every single stream.
+ */
+public class GzipCompression {
+
+	// Same header as written by GZIPOutputStream: magic, deflate, no flags, no modification time, no extra flags, unknown OS
+	private static final byte[] HEADER = { 0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, 0 };
+	private static final int TRAILER_SIZE = 8;
+
+	private static final int FLAG_HEADER_CRC = 0x02;
+	private static final int FLAG_EXTRA = 0x04;
+	private static final int FLAG_NAME = 0x08;
+	private static final int FLAG_COMMENT = 0x10;
+
+	private static final int BUFFER_SIZE = 8192;
+	private static final int MAX_POOLED_SIZE = 65536; // Larger arrays are only used for the stream they were grown for
+	private static final int MAX_DECOMPRESSED_SIZE = 2097152; // Same limit as the NBT size tracker of the client
+
+	private static final ThreadLocal<PooledInflater> INFLATERS = ThreadLocal.withInitial(PooledInflater::new);
+	private static final ThreadLocal<CRC32> CHECKSUMS = ThreadLocal.withInitial(CRC32::new);
+
+	/**
+	 * Compresses the given data as one gzip stream and writes it directly into the output buffer.
+	 *
+	 * @param input  the uncompressed data
+	 * @param offset the offset of the data in the input array
+	 * @param length the length of the data
+	 * @param output the buffer to write the compressed data into
+	 * @param level  the compression level, see {@link Deflater#setLevel(int)}
+	 * @return the amount of bytes written into the output buffer
+	 */
+	public static int compress(final byte[] input, final int offset, final int length, final ByteBuf output, final int level) {
+		final int startIndex = output.writerIndex();
+		output.writeBytes(HEADER);
+		DeflaterPool.deflateRaw(input, offset, length, output, level, Deflater.DEFAULT_STRATEGY, true);
+
+		final CRC32 checksum = CHECKSUMS.get();
+		checksum.reset();
+		checksum.update(input, offset, length);
+
+		// The trailer is little endian
+		output.writeInt(Integer.reverseBytes((int) checksum.getValue()));
+		output.writeInt(Integer.reverseBytes(length));
+		return output.writerIndex() - startIndex;
+	}
+
+	/**
+	 * Decompresses a gzip stream consisting of a single member. The returned buffer is backed by an array of the
+	 * calling thread and is only valid until the next call.
+	 *
+	 * @param input the compressed data, all readable bytes are consumed
+	 * @return the decompressed data
+	 * @throws IOException if the data isn't a valid gzip stream
+	 */
+	public static ByteBuf decompress(final ByteBuf input) throws IOException {
+		if (input.readableBytes() < HEADER.length + TRAILER_SIZE || input.readUnsignedByte() != 0x1f || input.readUnsignedByte() != 0x8b) {
+			throw new ZipException("Not in GZIP format");
+		}
+		if (input.readUnsignedByte() != Deflater.DEFLATED) {
+			throw new ZipException("Unsupported compression method");
+		}
+		final int flags = input.readUnsignedByte();
+		input.skipBytes(6); // Modification time, extra flags and OS
+		if ((flags & FLAG_EXTRA) != 0) {
+			checkHeader(input, 2);
+			skipHeader(input, input.readUnsignedByte() | input.readUnsignedByte() << 8);
+		}
+		if ((flags & FLAG_NAME) != 0) {
+			skipString(input);
+		}
+		if ((flags & FLAG_COMMENT) != 0) {
+			skipString(input);
+		}
+		if ((flags & FLAG_HEADER_CRC) != 0) {
+			skipHeader(input, 2);
+		}
+
+		final PooledInflater pooled = INFLATERS.get();
+		final Inflater inflater = pooled.inflater;
+		final byte[] output;
+		final int size;
+		try {
+			final int length = input.readableBytes();
+			if (input.hasArray()) {
+				inflater.setInput(input.array(), input.arrayOffset() + input.readerIndex(), length);
+			} else {
+				final byte[] array = pooled.input(length);
+				input.getBytes(input.readerIndex(), array, 0, length);
+				inflater.setInput(array, 0, length);
+			}
+			size = inflate(pooled);
+			output = pooled.output;
+			input.skipBytes(length - inflater.getRemaining());
+		} finally {
+			inflater.reset();
+			pooled.trim();
+		}
+
+		if (input.readableBytes() < TRAILER_SIZE) {
+			throw new ZipException("Unexpected end of GZIP stream");
+		}
+		final CRC32 checksum = CHECKSUMS.get();
+		checksum.reset();
+		checksum.update(output, 0, size);
+		if (Integer.reverseBytes(input.readInt()) != (int) checksum.getValue() || Integer.reverseBytes(input.readInt()) != size) {
+			throw new ZipException("Corrupt GZIP trailer");
+		}
+		return Unpooled.wrappedBuffer(output, 0, size);
+	}
+
+	private static int inflate(final PooledInflater pooled) throws ZipException {
+		final Inflater inflater = pooled.inflater;
+		int size = 0;
+		try {
+			while (!inflater.finished()) {
+				if (size == pooled.output.length) {
+					if (size >= MAX_DECOMPRESSED_SIZE) {
+						throw new ZipException("Decompressed data exceeds " + MAX_DECOMPRESSED_SIZE + " bytes");
+					}
+					final byte[] output = new byte[Math.min(size * 2, MAX_DECOMPRESSED_SIZE)];
+					System.arraycopy(pooled.output, 0, output, 0, size);
+					pooled.output = output;
+				}
+
+				final int inflated = inflater.inflate(pooled.output, size, pooled.output.length - size);
+				if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+					throw new ZipException("Unexpected end of GZIP stream");
+				}
+				size += inflated;
+			}
+		} catch (DataFormatException e) {
+			final ZipException exception = new ZipException(e.getMessage() != null ? e.getMessage() : "Invalid GZIP data format");
+			exception.initCause(e);
+			throw exception;
+		}
+		return size;
+	}
+
+	private static void skipHeader(final ByteBuf input, final int length) throws ZipException {
+		checkHeader(input, length);
+		input.skipBytes(length);
+	}
+
+	private static void skipString(final ByteBuf input) throws ZipException {
+		final int length = input.bytesBefore((byte) 0); // Zero terminated
+		if (length == -1) {
+			throw new ZipException("Unexpected end of GZIP header");
+		}
+		input.skipBytes(length + 1);
+	}
+
+	private static void checkHeader(final ByteBuf input, final int length) throws ZipException {
+		if (input.readableBytes() < length) {
+			throw new ZipException("Unexpected end of GZIP header");
+		}
+	}
+
+	private static class PooledInflater {
+
+		private final Inflater inflater = new Inflater(true);
+		private byte[] input = new byte[0];
+		private byte[] output = new byte[BUFFER_SIZE];
+
+		public byte[] input(final int length) {
+			if (input.length < length) {
+				input = new byte[length];
+			}
+			return input;
+		}
+
+		/**
+		 * Drops arrays which have been grown beyond {@link #MAX_POOLED_SIZE}, so a single large stream doesn't keep
+		 * up to {@link #MAX_DECOMPRESSED_SIZE} bytes per thread alive. Buffers returned before stay valid, they keep
+		 * their own reference to the array.
+		 */
+		public void trim() {
+			if (input.length > MAX_POOLED_SIZE) {
+				input = new byte[0];
+			}
+			if (output.length > MAX_POOLED_SIZE) {
+				output = new byte[BUFFER_SIZE];
+			}
+		}
+	}
+}
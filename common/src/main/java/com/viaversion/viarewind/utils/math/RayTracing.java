@@ -20,39 +20,44 @@ package com.viaversion.viarewind.utils.math;
 public class RayTracing {
 
 	public static Vector3d trace(Ray3d ray, AABB aabb, double distance) {
-		Vector3d invDir = new Vector3d(1f / ray.dir.x, 1f / ray.dir.y, 1f / ray.dir.z);
+		double t = intersect(ray.start.x, ray.start.y, ray.start.z, ray.dir.x, ray.dir.y, ray.dir.z,
+			aabb.min.x, aabb.min.y, aabb.min.z, aabb.max.x, aabb.max.y, aabb.max.z, distance);
 
-		boolean signDirX = invDir.x < 0;
-		boolean signDirY = invDir.y < 0;
-		boolean signDirZ = invDir.z < 0;
+		return Double.isNaN(t) ? null : ray.start.clone().add(ray.dir.clone().normalize().multiply(t));
+	}
+
+	/**
+	 * Intersects a ray with an axis aligned bounding box without allocating anything.
+	 *
+	 * @return the distance along the ray to the entry point, or NaN if the ray doesn't hit the box within the given distance
+	 */
+	public static double intersect(double startX, double startY, double startZ, double dirX, double dirY, double dirZ,
+								   double minX, double minY, double minZ, double maxX, double maxY, double maxZ, double distance) {
+		double invDirX = 1f / dirX;
+		double invDirY = 1f / dirY;
+		double invDirZ = 1f / dirZ;
 
-		Vector3d bbox = signDirX ? aabb.max : aabb.min;
-		double tmin = (bbox.x - ray.start.x) * invDir.x;
-		bbox = signDirX ? aabb.min : aabb.max;
-		double tmax = (bbox.x - ray.start.x) * invDir.x;
-		bbox = signDirY ? aabb.max : aabb.min;
-		double tymin = (bbox.y - ray.start.y) * invDir.y;
-		bbox = signDirY ? aabb.min : aabb.max;
-		double tymax = (bbox.y - ray.start.y) * invDir.y;
+		double tmin = ((invDirX < 0 ? maxX : minX) - startX) * invDirX;
+		double tmax = ((invDirX < 0 ? minX : maxX) - startX) * invDirX;
+		double tymin = ((invDirY < 0 ? maxY : minY) - startY) * invDirY;
+		double tymax = ((invDirY < 0 ? minY : maxY) - startY) * invDirY;
 
-		if (tmin > tymax || tymin > tmax) return null;
+		if (tmin > tymax || tymin > tmax) return Double.NaN;
 
 		if (tymin > tmin) tmin = tymin;
 
 		if (tymax < tmax) tmax = tymax;
 
-		bbox = signDirZ ? aabb.max : aabb.min;
-		double tzmin = (bbox.z - ray.start.z) * invDir.z;
-		bbox = signDirZ ? aabb.min : aabb.max;
-		double tzmax = (bbox.z - ray.start.z) * invDir.z;
+		double tzmin = ((invDirZ < 0 ? maxZ : minZ) - startZ) * invDirZ;
+		double tzmax = ((invDirZ < 0 ? minZ : maxZ) - startZ) * invDirZ;
 
-		if (tmin > tzmax || tzmin > tmax) return null;
+		if (tmin > tzmax || tzmin > tmax) return Double.NaN;
 
 		if (tzmin > tmin) tmin = tzmin;
 
 		if (tzmax < tmax) tmax = tzmax;
 
-		return tmin <= distance && tmax > 0 ? ray.start.clone().add(ray.dir.clone().normalize().multiply(tmin)) : null;
+		return tmin <= distance && tmax > 0 ? tmin : Double.NaN;
 	}
 
 }
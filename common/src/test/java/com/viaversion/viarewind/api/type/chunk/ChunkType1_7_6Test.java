@@ -0,0 +1,104 @@
+/*
+ * This file is part of ViaRewind - https://github.com/ViaVersion/ViaRewind
+ * Copyright (C) 2018-2024 ViaVersion and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.viaversion.viarewind.api.type.chunk;
+
+import com.viaversion.viaversion.api.minecraft.chunks.BaseChunk;
+import com.viaversion.viaversion.api.minecraft.chunks.Chunk;
+import com.viaversion.viaversion.api.minecraft.chunks.ChunkSection;
+import com.viaversion.viaversion.api.minecraft.chunks.ChunkSectionImpl;
+import com.viaversion.viaversion.api.minecraft.chunks.DataPalette;
+import com.viaversion.viaversion.api.minecraft.chunks.PaletteType;
+import com.viaversion.viaversion.util.Pair;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class ChunkType1_7_6Test {
+	private static final int[] BITMASKS = {0, 0x0001, 0x8000, 0x00FF, 0xFFFF, 0x5555, 0x8421, 0x0180};
+
+	@Test
+	public void serializeMatchesLegacySerializer() throws IOException {
+		final Random random = new Random(1);
+		for (int bitmask : BITMASKS) {
+			for (int i = 0; i < 8; i++) {
+				final boolean skyLight = (i & 1) != 0;
+				final boolean biomes = (i & 2) != 0;
+				final boolean fullChunk = (i & 4) != 0;
+				final Chunk chunk = randomChunk(random, bitmask, skyLight, fullChunk, biomes);
+
+				final Pair<byte[], Short> expected = LegacyChunkSerializer.serialize(chunk);
+				final Pair<byte[], Short> actual = ChunkType1_7_6.serialize(chunk);
+				final String name = "bitmask " + Integer.toHexString(bitmask) + ", sky light " + skyLight + ", biomes " + biomes + ", full chunk " + fullChunk;
+				assertEquals(expected.value(), actual.value(), name);
+				assertArrayEquals(expected.key(), actual.key(), name);
+			}
+		}
+	}
+
+	private static Chunk randomChunk(final Random random, final int bitmask, final boolean skyLight, final boolean fullChunk, final boolean biomes) {
+		final ChunkSection[] sections = new ChunkSection[16];
+		for (int i = 0; i < sections.length; i++) {
+			// Sections outside the bitmask are sometimes present as well and have to be ignored
+			if ((bitmask & 1 << i) == 0 && random.nextBoolean()) continue;
+
+			final ChunkSection section = sections[i] = new ChunkSectionImpl(true);
+			final DataPalette palette = section.palette(PaletteType.BLOCKS);
+			final int mode = random.nextInt(4);
+			for (int index = 0; index < ChunkSection.SIZE; index++) {
+				switch (mode) {
+					case 0: // Single block
+						palette.setIdAt(index, 1 << 4);
+						break;
+					case 1: // Few blocks with metadata
+						palette.setIdAt(index, random.nextInt(8) << 4 | random.nextInt(16));
+						break;
+					case 2: // Block ids above 255
+						palette.setIdAt(index, random.nextInt(4096) << 4 | random.nextInt(16));
+						break;
+					default: // Ids above 255 which are replaced again, stale in the palette
+						palette.setIdAt(index, (256 + random.nextInt(100)) << 4);
+						palette.setIdAt(index, random.nextInt(256) << 4 | random.nextInt(16));
+						break;
+				}
+			}
+
+			final byte[] blockLight = new byte[ChunkSection.SIZE / 2];
+			random.nextBytes(blockLight);
+			section.getLight().setBlockLight(blockLight);
+			if (skyLight) {
+				final byte[] light = new byte[ChunkSection.SIZE / 2];
+				random.nextBytes(light);
+				section.getLight().setSkyLight(light);
+			}
+		}
+
+		int[] biomeData = null;
+		if (biomes) {
+			biomeData = new int[256];
+			for (int i = 0; i < biomeData.length; i++) {
+				biomeData[i] = random.nextInt(256);
+			}
+		}
+		return new BaseChunk(random.nextInt(), random.nextInt(), fullChunk, false, bitmask, sections, biomeData, new ArrayList<>());
+	}
+}
@@ -0,0 +1,155 @@
+/*
+ * This file is part of ViaRewind - https://github.com/ViaVersion/ViaRewind
+ * Copyright (C) 2018-2024 ViaVersion and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.viaversion.viarewind.api.type.chunk;
+
+import com.viaversion.viaversion.api.minecraft.chunks.Chunk;
+import com.viaversion.viaversion.api.minecraft.chunks.ChunkSection;
+import com.viaversion.viaversion.api.minecraft.chunks.NibbleArray;
+import com.viaversion.viaversion.api.minecraft.chunks.PaletteType;
+import com.viaversion.viaversion.util.Pair;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+/**
+ * The 1.7 chunk serializer which was used before the data was written directly from the block palettes, copying every
+ * section into an {@link ExtendedBlockStorage} first.
+ */
+public class LegacyChunkSerializer {
+
+	public static Pair<byte[], Short> serialize(final Chunk chunk) throws IOException {
+		final ExtendedBlockStorage[] storageArrays = new ExtendedBlockStorage[16];
+		for (int i = 0; i < storageArrays.length; i++) {
+			final ChunkSection section = chunk.getSections()[i];
+			if (section != null) {
+				final ExtendedBlockStorage storage = storageArrays[i] = new ExtendedBlockStorage(section.getLight().hasSkyLight());
+				for (int x = 0; x < 16; x++) {
+					for (int z = 0; z < 16; z++) {
+						for (int y = 0; y < 16; y++) {
+							final int flatBlock = section.palette(PaletteType.BLOCKS).idAt(x, y, z);
+							storage.setBlockId(x, y, z, flatBlock >> 4);
+							storage.setBlockMetadata(x, y, z, flatBlock & 15);
+						}
+					}
+				}
+				storage.getBlockLightArray().setHandle(section.getLight().getBlockLight());
+				if (section.getLight().hasSkyLight()) {
+					storage.getSkyLightArray().setHandle(section.getLight().getSkyLight());
+				}
+			}
+		}
+
+		final ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+		for (int i = 0; i < storageArrays.length; i++) {
+			if ((chunk.getBitmask() & 1 << i) != 0) {
+				output.write(storageArrays[i].getBlockLSBArray());
+			}
+		}
+
+		for (int i = 0; i < storageArrays.length; i++) {
+			if ((chunk.getBitmask() & 1 << i) != 0) {
+				output.write(storageArrays[i].getBlockMetadataArray().getHandle());
+			}
+		}
+
+		for (int i = 0; i < storageArrays.length; i++) {
+			if ((chunk.getBitmask() & 1 << i) != 0) {
+				output.write(storageArrays[i].getBlockLightArray().getHandle());
+			}
+		}
+
+		for (int i = 0; i < storageArrays.length; i++) {
+			if ((chunk.getBitmask() & 1 << i) != 0 && storageArrays[i].getSkyLightArray() != null) {
+				output.write(storageArrays[i].getSkyLightArray().getHandle());
+			}
+		}
+
+		short additionalBitMask = 0;
+		for (int i = 0; i < storageArrays.length; i++) {
+			if ((chunk.getBitmask() & 1 << i) != 0 && storageArrays[i].hasBlockMSBArray()) {
+				additionalBitMask |= (short) (1 << i);
+				output.write(storageArrays[i].getOrCreateBlockMSBArray().getHandle());
+			}
+		}
+
+		if (chunk.isFullChunk() && chunk.getBiomeData() != null) {
+			for (int biome : chunk.getBiomeData()) {
+				output.write(biome);
+			}
+		}
+
+		return new Pair<>(output.toByteArray(), additionalBitMask);
+	}
+
+	private static class ExtendedBlockStorage {
+		private final byte[] blockLSBArray = new byte[4096];
+
+		private final NibbleArray blockMetadataArray = new NibbleArray(this.blockLSBArray.length);
+		private final NibbleArray blockLightArray = new NibbleArray(this.blockLSBArray.length);
+
+		private NibbleArray blockMSBArray;
+		private NibbleArray skyLightArray;
+
+		public ExtendedBlockStorage(final boolean skylight) {
+			if (skylight) {
+				this.skyLightArray = new NibbleArray(this.blockLSBArray.length);
+			}
+		}
+
+		public void setBlockId(final int x, final int y, final int z, final int value) {
+			this.blockLSBArray[ChunkSection.index(x, y, z)] = (byte) (value & 255);
+			if (value > 255) {
+				this.getOrCreateBlockMSBArray().set(x, y, z, (value & 0xF00) >> 8);
+			} else if (this.blockMSBArray != null) {
+				this.blockMSBArray.set(x, y, z, 0);
+			}
+		}
+
+		public void setBlockMetadata(final int x, final int y, final int z, final int value) {
+			this.blockMetadataArray.set(x, y, z, value);
+		}
+
+		public boolean hasBlockMSBArray() {
+			return this.blockMSBArray != null;
+		}
+
+		public byte[] getBlockLSBArray() {
+			return this.blockLSBArray;
+		}
+
+		public NibbleArray getOrCreateBlockMSBArray() {
+			if (this.blockMSBArray == null) {
+				return this.blockMSBArray = new NibbleArray(this.blockLSBArray.length);
+			}
+			return this.blockMSBArray;
+		}
+
+		public NibbleArray getBlockMetadataArray() {
+			return this.blockMetadataArray;
+		}
+
+		public NibbleArray getBlockLightArray() {
+			return this.blockLightArray;
+		}
+
+		public NibbleArray getSkyLightArray() {
+			return this.skyLightArray;
+		}
+	}
+}
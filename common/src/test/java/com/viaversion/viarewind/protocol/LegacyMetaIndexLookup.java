@@ -0,0 +1,64 @@
+/*
+ * This file is part of ViaRewind - https://github.com/ViaVersion/ViaRewind
+ * Copyright (C) 2018-2024 ViaVersion and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.viaversion.viarewind.protocol;
+
+import com.viaversion.viaversion.api.minecraft.entities.EntityType;
+import com.viaversion.viaversion.util.Pair;
+
+import java.util.HashMap;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+/**
+ * The metadata index lookup which was used before the rewrites were flattened into a table per entity type, a map from
+ * the entity type and index to the rewrite which is searched once for every parent of the entity type.
+ *
+ * @param <T> the metadata index type
+ */
+public class LegacyMetaIndexLookup<T> {
+
+	private final HashMap<Pair<EntityType, Integer>, T> metadataRewrites = new HashMap<>();
+
+	public LegacyMetaIndexLookup(final T[] indexes, final Function<T, EntityType> typeGetter, final ToIntFunction<T> indexGetter) {
+		for (T index : indexes) {
+			metadataRewrites.put(new Pair<>(typeGetter.apply(index), indexGetter.applyAsInt(index)), index);
+		}
+	}
+
+	private Optional<T> getIndex(final EntityType type, final int index) {
+		final Pair<EntityType, Integer> pair = new Pair<>(type, index);
+		if (metadataRewrites.containsKey(pair)) {
+			return Optional.of(metadataRewrites.get(pair));
+		} else {
+			return Optional.empty();
+		}
+	}
+
+	public T searchIndex(final EntityType type, final int index) {
+		EntityType currentType = type;
+		do {
+			final Optional<T> optMeta = getIndex(currentType, index);
+			if (optMeta.isPresent()) {
+				return optMeta.get();
+			}
+			currentType = currentType.getParent();
+		} while (currentType != null);
+		return null;
+	}
+}
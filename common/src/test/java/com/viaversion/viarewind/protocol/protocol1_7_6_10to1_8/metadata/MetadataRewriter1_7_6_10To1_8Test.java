@@ -0,0 +1,94 @@
+/*
+ * This file is part of ViaRewind - https://github.com/ViaVersion/ViaRewind
+ * Copyright (C) 2018-2024 ViaVersion and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.viaversion.viarewind.protocol.protocol1_7_6_10to1_8.metadata;
+
+import com.viaversion.viarewind.api.type.Types1_7_6_10;
+import com.viaversion.viarewind.protocol.protocol1_7_6_10to1_8.Protocol1_7_6_10To1_8;
+import com.viaversion.viaversion.api.minecraft.EulerAngle;
+import com.viaversion.viaversion.api.minecraft.Vector;
+import com.viaversion.viaversion.api.minecraft.entities.EntityTypes1_10.EntityType;
+import com.viaversion.viaversion.api.minecraft.metadata.Metadata;
+import com.viaversion.viaversion.api.minecraft.metadata.types.MetaType1_8;
+import com.viaversion.viaversion.api.type.types.version.Types1_8;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+public class MetadataRewriter1_7_6_10To1_8Test {
+	private static final EntityType[] TYPES = {null, EntityType.PLAYER, EntityType.ITEM_FRAME, EntityType.COW, EntityType.WOLF, EntityType.MINECART_FURNACE, EntityType.ENDER_CRYSTAL};
+
+	private static MetadataRewriter1_7_6_10To1_8 rewriter;
+
+	@BeforeAll
+	public static void setup() {
+		rewriter = new Protocol1_7_6_10To1_8().getEntityRewriter();
+	}
+
+	@Test
+	public void streamMatchesList() throws Exception {
+		for (EntityType type : TYPES) {
+			assertSameOutput(type, Collections.emptyList());
+
+			// Every index with every type which doesn't need item rewrites, the entries with the wrong type are dropped
+			final List<Metadata> metadata = new ArrayList<>();
+			for (int index = 0; index < 32; index++) {
+				metadata.add(new Metadata(index, MetaType1_8.Byte, (byte) -index));
+				metadata.add(new Metadata(index, MetaType1_8.Short, (short) (index * 300)));
+				metadata.add(new Metadata(index, MetaType1_8.Int, index * -70000));
+				metadata.add(new Metadata(index, MetaType1_8.Float, index * 1.5F));
+				metadata.add(new Metadata(index, MetaType1_8.String, "Entry " + index));
+				metadata.add(new Metadata(index, MetaType1_8.Position, new Vector(index, -index, index * 2)));
+				metadata.add(new Metadata(index, MetaType1_8.Rotation, new EulerAngle(index, -index, index * 2)));
+			}
+			assertSameOutput(type, metadata);
+		}
+	}
+
+	private static void assertSameOutput(final EntityType type, final List<Metadata> metadata) throws Exception {
+		final ByteBuf input = Unpooled.buffer();
+		Types1_8.METADATA_LIST.write(input, metadata);
+
+		final ByteBuf stream = Unpooled.buffer();
+		rewriter.rewriteMetadata(null, type, input.duplicate(), stream);
+
+		final List<Metadata> list = Types1_8.METADATA_LIST.read(input.duplicate());
+		final List<Metadata> rewritten = new ArrayList<>();
+		for (Metadata entry : list) {
+			if (rewriter.rewriteEntry(null, type, entry)) {
+				rewritten.add(entry);
+			}
+		}
+		final ByteBuf expected = Unpooled.buffer();
+		Types1_7_6_10.METADATA_LIST.write(expected, rewritten);
+
+		assertArrayEquals(toArray(expected), toArray(stream), String.valueOf(type));
+	}
+
+	private static byte[] toArray(final ByteBuf buffer) {
+		final byte[] array = new byte[buffer.readableBytes()];
+		buffer.readBytes(array);
+		return array;
+	}
+}
@@ -0,0 +1,38 @@
+/*
+ * This file is part of ViaRewind - https://github.com/ViaVersion/ViaRewind
+ * Copyright (C) 2018-2024 ViaVersion and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.viaversion.viarewind.protocol.protocol1_8to1_9.metadata;
+
+import com.viaversion.viarewind.protocol.LegacyMetaIndexLookup;
+import com.viaversion.viaversion.api.minecraft.entities.EntityTypes1_10;
+import com.viaversion.viaversion.protocols.protocol1_9to1_8.metadata.MetaIndex;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public class MetaIndex1_8to1_9Test {
+
+	@Test
+	public void searchIndexMatchesLegacyLookup() {
+		final LegacyMetaIndexLookup<MetaIndex> legacy = new LegacyMetaIndexLookup<>(MetaIndex.values(), MetaIndex::getClazz, MetaIndex::getNewIndex);
+		for (EntityTypes1_10.EntityType type : EntityTypes1_10.EntityType.values()) {
+			for (int index = 0; index < 256; index++) {
+				assertSame(legacy.searchIndex(type, index), MetaIndex1_8to1_9.searchIndex(type, index), type + " index " + index);
+			}
+		}
+	}
+}
@@ -0,0 +1,193 @@
+/*
+ * This file is part of ViaRewind - https://github.com/ViaVersion/ViaRewind
+ * Copyright (C) 2018-2024 ViaVersion and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.viaversion.viarewind.utils;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipException;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class GzipCompressionTest {
+	private static final int[] SIZES = {0, 1, 100, 8192, 8193, 70000, 300000};
+
+	@Test
+	public void compressMatchesJdk() throws IOException {
+		for (int size : SIZES) {
+			final byte[] data = data(size);
+			final ByteBuf output = Unpooled.buffer();
+			output.writeByte(7); // Written after existing content
+			final int length = GzipCompression.compress(data, 0, data.length, output, 6);
+			assertEquals(output.readableBytes() - 1, length);
+
+			output.skipBytes(1);
+			assertArrayEquals(data, readAll(new GZIPInputStream(new ByteArrayInputStream(toArray(output)))), "size " + size);
+		}
+	}
+
+	@Test
+	public void decompressMatchesJdk() throws IOException {
+		for (int size : SIZES) {
+			final byte[] data = data(size);
+			final byte[] compressed = jdkCompress(data);
+			assertArrayEquals(data, toArray(GzipCompression.decompress(Unpooled.wrappedBuffer(compressed))), "heap size " + size);
+
+			final ByteBuf direct = Unpooled.directBuffer(compressed.length);
+			direct.writeBytes(compressed);
+			assertArrayEquals(data, toArray(GzipCompression.decompress(direct)), "direct size " + size);
+			assertEquals(0, direct.readableBytes());
+		}
+	}
+
+	@Test
+	public void roundTrip() throws IOException {
+		final Random random = new Random(1);
+		for (int i = 0; i < 50; i++) {
+			final byte[] data = new byte[random.nextInt(100000)];
+			random.nextBytes(data);
+			final ByteBuf compressed = Unpooled.buffer();
+			GzipCompression.compress(data, 0, data.length, compressed, random.nextInt(10));
+			assertArrayEquals(data, toArray(GzipCompression.decompress(compressed)));
+		}
+	}
+
+	@Test
+	public void optionalHeaderFields() throws IOException {
+		final byte[] data = data(1000);
+		final byte[] compressed = jdkCompress(data);
+
+		final ByteArrayOutputStream stream = new ByteArrayOutputStream();
+		stream.write(compressed, 0, 3);
+		stream.write(0x02 | 0x04 | 0x08 | 0x10); // Header CRC, extra, name and comment
+		stream.write(compressed, 4, 6);
+		stream.write(3); // Extra length, little endian
+		stream.write(0);
+		stream.write(new byte[]{1, 2, 3});
+		stream.write("name".getBytes());
+		stream.write(0);
+		stream.write("comment".getBytes());
+		stream.write(0);
+		stream.write(new byte[]{4, 5}); // Header CRC, not checked
+		stream.write(compressed, 10, compressed.length - 10);
+
+		final ByteBuf input = Unpooled.wrappedBuffer(stream.toByteArray());
+		assertArrayEquals(data, toArray(GzipCompression.decompress(input)));
+		assertEquals(0, input.readableBytes());
+	}
+
+	@Test
+	public void truncatedHeaderFields() {
+		final byte[] compressed = jdkCompress(data(0));
+
+		final byte[] name = compressed.clone();
+		name[3] = 0x08;
+		Arrays.fill(name, 10, name.length, (byte) 'a'); // Never terminated
+		assertThrows(ZipException.class, () -> GzipCompression.decompress(Unpooled.wrappedBuffer(name)));
+
+		final byte[] extra = compressed.clone();
+		extra[3] = 0x04;
+		extra[10] = (byte) 0xFF; // Longer than the stream
+		extra[11] = 0x01;
+		assertThrows(ZipException.class, () -> GzipCompression.decompress(Unpooled.wrappedBuffer(extra)));
+	}
+
+	@Test
+	public void corruptTrailer() {
+		final byte[] compressed = jdkCompress(data(1000));
+
+		final byte[] checksum = compressed.clone();
+		checksum[checksum.length - 8] ^= 1;
+		assertThrows(ZipException.class, () -> GzipCompression.decompress(Unpooled.wrappedBuffer(checksum)));
+
+		final byte[] size = compressed.clone();
+		size[size.length - 4] ^= 1;
+		assertThrows(ZipException.class, () -> GzipCompression.decompress(Unpooled.wrappedBuffer(size)));
+	}
+
+	@Test
+	public void truncatedStream() {
+		final byte[] compressed = jdkCompress(data(100000));
+		for (int length : new int[]{4, 15, 200, compressed.length - 4}) {
+			assertThrows(ZipException.class, () -> GzipCompression.decompress(Unpooled.wrappedBuffer(compressed, 0, length)), "length " + length);
+		}
+	}
+
+	@Test
+	public void decompressedSizeLimit() {
+		final byte[] compressed = jdkCompress(new byte[2097153]);
+		assertThrows(ZipException.class, () -> GzipCompression.decompress(Unpooled.wrappedBuffer(compressed)));
+	}
+
+	@Test
+	public void largeStreamArraysAreNotReused() throws IOException {
+		final byte[] large = data(300000);
+		final ByteBuf first = GzipCompression.decompress(Unpooled.wrappedBuffer(jdkCompress(large)));
+
+		// The grown arrays are dropped after the large stream, so the next call can't overwrite the first result
+		final byte[] small = data(100);
+		assertArrayEquals(small, toArray(GzipCompression.decompress(Unpooled.wrappedBuffer(jdkCompress(small)))));
+		assertArrayEquals(large, toArray(first));
+	}
+
+	private static byte[] data(final int size) {
+		final Random random = new Random(size);
+		final byte[] data = new byte[size];
+		for (int i = 0; i < size; i++) {
+			data[i] = (byte) random.nextInt(16); // Compressible
+		}
+		return data;
+	}
+
+	private static byte[] jdkCompress(final byte[] data) {
+		final ByteArrayOutputStream output = new ByteArrayOutputStream();
+		try (GZIPOutputStream stream = new GZIPOutputStream(output)) {
+			stream.write(data);
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+		return output.toByteArray();
+	}
+
+	private static byte[] readAll(final InputStream input) throws IOException {
+		final ByteArrayOutputStream output = new ByteArrayOutputStream();
+		final byte[] buffer = new byte[4096];
+		int read;
+		while ((read = input.read(buffer)) != -1) {
+			output.write(buffer, 0, read);
+		}
+		return output.toByteArray();
+	}
+
+	private static byte[] toArray(final ByteBuf buffer) {
+		final byte[] array = new byte[buffer.readableBytes()];
+		buffer.readBytes(array);
+		return array;
+	}
+}